@@ -0,0 +1,254 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Carga contra a API para comparar o perfil padrão (threads de plataforma) com o perfil "virtual".
+// Arquivo único, sem dependências: java carga/Carga.java cenario=lentos clientes=50 lentos=300 (ver README.md).
+//
+// Cenários:
+//   leitura - cada cliente repete GET /produto/findById (JDBC curto) durante a medição
+//   venda   - cada cliente repete POST /venda/save com um item de um dos "produtos" produtos criados para a
+//             carga (escrita, baixa de estoque, livro); um produto só mediria a fila na trava da linha
+//   lentos  - "lentos" clientes enviam vendas com o corpo em duas partes separadas por "atraso-ms" (o servlet
+//             fica bloqueado lendo o corpo), enquanto "clientes" fazem o cenário leitura; o resultado é o das
+//             leituras, que mostra se elas esperam por thread atrás dos clientes lentos. A venda lenta vem sem
+//             itens e é recusada na validação (400), sem ir ao banco: os lentos custam só a thread da
+//             requisição, e a comparação não mistura a capacidade do banco com a ocupação de threads
+public class Carga {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final Map<String, String> parametros;
+    private final String url;
+    private final HttpClient http;
+    private String token;
+    private final List<Long> produtoIds = new ArrayList<>();
+
+    private Carga(Map<String, String> parametros) {
+        this.parametros = parametros;
+        this.url = parametro("url", "http://localhost:8080") + "/api/emanager";
+        // Uma conexão por requisição em andamento
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parametros = new HashMap<>();
+        for (String arg : args) {
+            String[] chaveValor = arg.split("=", 2);
+            if (chaveValor.length != 2) {
+                throw new IllegalArgumentException("Parâmetro sem valor: " + arg + " (use chave=valor)");
+            }
+            parametros.put(chaveValor[0], chaveValor[1]);
+        }
+
+        new Carga(parametros).executar();
+    }
+
+    private void executar() throws Exception {
+        String cenario = parametro("cenario", "leitura");
+        int clientes = inteiro("clientes", 50);
+        int lentos = inteiro("lentos", 400);
+        int aquecimento = inteiro("aquecimento", 5);
+        int duracao = inteiro("duracao", 30);
+
+        preparar();
+
+        // O aquecimento roda o mesmo cenário e é descartado (JIT, pool de conexões, caches)
+        rodar(cenario, clientes, lentos, aquecimento);
+        Medicao medicao = rodar(cenario, clientes, lentos, duracao);
+
+        System.out.printf(Locale.ROOT, "cenario=%s clientes=%d%s duracao=%ds ok=%d erros=%d req/s=%.1f "
+                        + "p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                cenario, clientes, cenario.equals("lentos") ? " lentos=" + lentos + " (concluidos=" + medicao.lentosConcluidos + ")" : "",
+                duracao, medicao.ok, medicao.erros, medicao.ok / (double) duracao,
+                medicao.percentil(50), medicao.percentil(90), medicao.percentil(99), medicao.percentil(100));
+    }
+
+    // Login e produtos próprios com estoque de sobra, para as vendas não falharem por falta de estoque
+    private void preparar() throws Exception {
+        HttpResponse<String> login = http.send(HttpRequest.newBuilder(URI.create(url + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"login\":\"" + parametro("login", "admin")
+                        + "\",\"senha\":\"" + parametro("senha", "admin") + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        exigir(login, "login");
+        token = login.body().trim();
+
+        String sufixo = Long.toString(System.currentTimeMillis());
+        long categoriaId = criar("/categoria/save", "{\"nome\":\"Carga " + sufixo + "\"}");
+        for (int i = 0; i < inteiro("produtos", 100); i++) {
+            produtoIds.add(criar("/produto/save/" + parametro("usuario", "1"), "{\"nome\":\"Produto carga " + sufixo + " " + i
+                    + "\",\"quantidade\":100000000,\"preco\":10.0,\"ativo\":true,\"categoria\":{\"id\":" + categoriaId + "}}"));
+        }
+    }
+
+    private Medicao rodar(String cenario, int clientes, int lentos, int segundos) throws InterruptedException {
+        Medicao medicao = new Medicao();
+        long fim = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (cenario.equals("lentos")) {
+                int atrasoMs = inteiro("atraso-ms", 5000);
+                for (int i = 0; i < lentos; i++) {
+                    executor.submit(() -> {
+                        while (System.nanoTime() < fim) {
+                            try {
+                                vendaLenta(atrasoMs);
+                                medicao.lentosConcluidos.incrementAndGet();
+                            } catch (Exception e) {
+                                // Os lentos só ocupam o servidor; erros deles não entram na medição
+                            }
+                        }
+                    });
+                }
+            }
+
+            for (int i = 0; i < clientes; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < fim) {
+                        HttpRequest requisicao = cenario.equals("venda") ? venda() : leitura();
+                        long inicio = System.nanoTime();
+                        int status;
+                        try {
+                            status = enviar(requisicao);
+                        } catch (Exception e) {
+                            status = 0;
+                        }
+                        medicao.registrar(status, System.nanoTime() - inicio);
+                    }
+                });
+            }
+        }
+        return medicao;
+    }
+
+    private HttpRequest leitura() {
+        return autenticada("/produto/findById/" + produtoAleatorio()).GET().build();
+    }
+
+    private HttpRequest venda() {
+        return postVenda(HttpRequest.BodyPublishers.ofString("{\"metodoPagamento\":\"PIX\",\"itens\":[{\"produtoId\":"
+                + produtoAleatorio() + ",\"quantidadeVendida\":1}]}"));
+    }
+
+    // Socket direto: o HttpClient do JDK só envia a requisição quando o corpo inteiro está pronto. Cabeçalhos e
+    // metade do corpo, a pausa e o resto; o servidor já despachou a requisição e fica esperando o corpo.
+    private void vendaLenta(int atrasoMs) throws IOException, InterruptedException {
+        URI destino = URI.create(url + "/venda/save/" + parametro("usuario", "1"));
+        byte[] corpo = "{\"metodoPagamento\":\"PIX\",\"itens\":[]}".getBytes(StandardCharsets.UTF_8);
+        byte[] cabecalhos = ("POST " + destino.getRawPath() + " HTTP/1.1\r\n"
+                + "Host: " + destino.getHost() + ":" + destino.getPort() + "\r\n"
+                + "Authorization: Bearer " + token + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + corpo.length + "\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        try (Socket socket = new Socket(destino.getHost(), destino.getPort())) {
+            socket.setSoTimeout(60_000);
+            OutputStream saida = socket.getOutputStream();
+            saida.write(cabecalhos);
+            saida.write(corpo, 0, corpo.length / 2);
+            saida.flush();
+
+            Thread.sleep(atrasoMs);
+            saida.write(corpo, corpo.length / 2, corpo.length - corpo.length / 2);
+            saida.flush();
+
+            socket.getInputStream().readAllBytes();
+        }
+    }
+
+    private HttpRequest postVenda(HttpRequest.BodyPublisher corpo) {
+        return autenticada("/venda/save/" + parametro("usuario", "1"))
+                .header("Content-Type", "application/json")
+                .POST(corpo)
+                .build();
+    }
+
+    private long produtoAleatorio() {
+        return produtoIds.get(ThreadLocalRandom.current().nextInt(produtoIds.size()));
+    }
+
+    private HttpRequest.Builder autenticada(String caminho) {
+        return HttpRequest.newBuilder(URI.create(url + caminho))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60));
+    }
+
+    private int enviar(HttpRequest requisicao) throws IOException, InterruptedException {
+        return http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private long criar(String caminho, String json) throws Exception {
+        HttpResponse<String> resposta = http.send(autenticada(caminho)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        exigir(resposta, caminho);
+
+        Matcher id = ID.matcher(resposta.body());
+        if (!id.find()) {
+            throw new IllegalStateException("Resposta sem id em " + caminho + ": " + resposta.body());
+        }
+        return Long.parseLong(id.group(1));
+    }
+
+    private static void exigir(HttpResponse<String> resposta, String passo) {
+        if (resposta.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Falha em " + passo + " (" + resposta.statusCode() + "): " + resposta.body());
+        }
+    }
+
+    private String parametro(String nome, String padrao) {
+        return parametros.getOrDefault(nome, padrao);
+    }
+
+    private int inteiro(String nome, int padrao) {
+        return Integer.parseInt(parametro(nome, Integer.toString(padrao)));
+    }
+
+    private static final class Medicao {
+
+        private final ConcurrentLinkedQueue<Long> latencias = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger lentosConcluidos = new AtomicInteger();
+        private int ok;
+        private int erros;
+
+        synchronized void registrar(int status, long nanos) {
+            if (status / 100 == 2) {
+                ok++;
+                latencias.add(nanos);
+            } else {
+                erros++;
+            }
+        }
+
+        // Latência em ms das requisições bem-sucedidas
+        synchronized double percentil(int percentil) {
+            long[] ordenadas = latencias.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (ordenadas.length == 0) {
+                return 0;
+            }
+            int posicao = Math.min(ordenadas.length - 1, (int) Math.ceil(ordenadas.length * percentil / 100.0) - 1);
+            return ordenadas[Math.max(posicao, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+#!/bin/sh
+# Roda os cenários de Carga.java contra uma instância já no ar e imprime uma linha por cenário.
+# uso: carga/rodar.sh [url] [parâmetros extras do Carga.java, ex.: login=admin senha=admin usuario=1]
+set -e
+URL=${1:-http://localhost:8080}
+[ $# -gt 0 ] && shift
+DIR=$(dirname "$0")
+
+java "$DIR/Carga.java" url="$URL" cenario=leitura clientes=50 duracao=30 "$@"
+java "$DIR/Carga.java" url="$URL" cenario=venda clientes=20 duracao=30 "$@"
+# 230 lentos passam das 200 threads do Tomcat no perfil padrão e ficam abaixo das 256 threads portadoras das
+# threads virtuais no Java 21 (ver README.md); 400 passam das duas
+java "$DIR/Carga.java" url="$URL" cenario=lentos clientes=20 lentos=230 atraso-ms=5000 duracao=30 "$@"
+java "$DIR/Carga.java" url="$URL" cenario=lentos clientes=20 lentos=400 atraso-ms=5000 duracao=30 "$@"
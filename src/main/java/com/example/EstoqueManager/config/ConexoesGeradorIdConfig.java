@@ -0,0 +1,68 @@
+package com.example.EstoqueManager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Conexões próprias para o gerador de IDs em blocos (@TableGenerator).
+// O Hibernate busca cada bloco em uma transação isolada, em uma segunda conexão, enquanto a transação da
+// venda segura a dela e a trava do gerador. Com o pool inteiro ocupado por vendas esperando essa trava, a busca
+// do bloco nunca consegue conexão e todas esperam até o connection-timeout (pool-locking). Um pedido de conexão
+// feito com uma transação já ativa na thread só pode ser essa busca (as transações do Spring reusam a conexão
+// vinculada), e vai para uma reserva com uma conexão por sequência: cada gerador busca um bloco por vez.
+@Component
+public class ConexoesGeradorIdConfig implements BeanPostProcessor, Ordered {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource principal) {
+            // Mesmas configurações do pool principal; como ele, só abre conexões no primeiro uso
+            HikariDataSource reserva = new HikariDataSource();
+            principal.copyStateTo(reserva);
+            reserva.setPoolName("HikariPool-gerador-id");
+            reserva.setMaximumPoolSize(GeradorIdInicializador.SEQUENCIAS.size());
+            reserva.setMinimumIdle(GeradorIdInicializador.SEQUENCIAS.size());
+            return new DataSourceComReserva(principal, reserva);
+        }
+        return bean;
+    }
+
+    // Antes de outros invólucros do DataSource, que precisam enxergar este
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private static final class DataSourceComReserva extends DelegatingDataSource implements Closeable {
+
+        private final HikariDataSource principal;
+        private final HikariDataSource reserva;
+
+        DataSourceComReserva(HikariDataSource principal, HikariDataSource reserva) {
+            super(principal);
+            this.principal = principal;
+            this.reserva = reserva;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                return reserva.getConnection();
+            }
+            return principal.getConnection();
+        }
+
+        @Override
+        public void close() {
+            reserva.close();
+            principal.close();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.EstoqueManager.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Migração das tabelas que saíram de IDENTITY para o gerador em blocos (@TableGenerator).
+// Garante que o próximo valor de cada sequência fica acima do maior ID já gravado, para não colidir
+// com as linhas criadas pelo AUTO_INCREMENT. Pode rodar em todo startup: só avança o valor, nunca volta.
+@Component
+@RequiredArgsConstructor
+public class GeradorIdInicializador {
+
+    // Devem ser iguais aos usados nos @TableGenerator das entidades
+    private static final String TABELA = "id_gerador_table";
+    private static final int TAMANHO_ALOCACAO = 50;
+
+    // sequência -> tabela da entidade
+    static final Map<String, String> SEQUENCIAS = Map.of(
+            "venda", "venda_table",
+            "item_venda", "item_venda_table",
+            "movimentacao_estoque", "movimentacao_estoque_table",
+            "snapshot_estoque", "snapshot_estoque_table");
+
+    private final JdbcTemplate jdbcTemplate;
+    // Dependência só para garantir que o Hibernate já criou/atualizou o schema
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void inicializar() {
+        SEQUENCIAS.forEach((sequencia, tabela) -> {
+            Long maiorId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabela, Long.class);
+            long minimo = maiorId + TAMANHO_ALOCACAO + 1;
+
+            int atualizadas = jdbcTemplate.update(
+                    "UPDATE " + TABELA + " SET proximo_valor = ? WHERE nome_sequencia = ? AND proximo_valor < ?",
+                    minimo, sequencia, minimo);
+
+            if (atualizadas == 0) {
+                Integer existe = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM " + TABELA + " WHERE nome_sequencia = ?", Integer.class, sequencia);
+
+                if (existe == 0) {
+                    jdbcTemplate.update(
+                            "INSERT INTO " + TABELA + " (nome_sequencia, proximo_valor) VALUES (?, ?)",
+                            sequencia, minimo);
+                }
+            }
+        });
+    }
+}
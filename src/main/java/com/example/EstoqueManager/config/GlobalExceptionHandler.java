@@ -3,6 +3,7 @@ package com.example.EstoqueManager.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.example.EstoqueManager.exception.ConflitoIdempotenciaException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -36,6 +37,12 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<Map<String, String>>(erros, HttpStatus.BAD_REQUEST);
 	}
 
+	//MESMA IDEMPOTENCY-KEY COM OUTRO CORPO
+	@ExceptionHandler(ConflitoIdempotenciaException.class)
+	public ResponseEntity<String> handle04(ConflitoIdempotenciaException ex) {
+		return new ResponseEntity<String>(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
 	//TRATAMENTO DOS DEMAIS ERROS DA APLICAÇÃO E DE REGRAS DE NEGÓCIO
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<String> handle03(Exception ex) {
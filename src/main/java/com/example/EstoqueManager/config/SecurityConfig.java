@@ -1,5 +1,7 @@
 package com.example.EstoqueManager.config;
 
+import com.example.EstoqueManager.dto.PaginaDTO;
+import jakarta.servlet.DispatcherType;
 import java.util.Arrays;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +36,9 @@ public class SecurityConfig  {
                 .cors(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests((requests) -> requests
                         .requestMatchers("/api/emanager/login").permitAll()
+                        // Redespacho das respostas em streaming (/venda/exportar): a requisição original já foi
+                        // autorizada e o filtro do JWT não roda de novo no despacho ASYNC
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated())
                 .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
@@ -58,7 +63,8 @@ public class SecurityConfig  {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowCredentials(true);
         config.setAllowedOriginPatterns(Arrays.asList("*"));
-        config.setAllowedHeaders(Arrays.asList(HttpHeaders.AUTHORIZATION,HttpHeaders.CONTENT_TYPE,HttpHeaders.ACCEPT));
+        config.setAllowedHeaders(Arrays.asList(HttpHeaders.AUTHORIZATION,HttpHeaders.CONTENT_TYPE,HttpHeaders.ACCEPT,"Idempotency-Key",HttpHeaders.IF_NONE_MATCH));
+        config.setExposedHeaders(Arrays.asList(HttpHeaders.ETAG, PaginaDTO.CABECALHO_PROXIMO_CURSOR));
         config.setAllowedMethods(Arrays.asList(HttpMethod.GET.name(),HttpMethod.POST.name(),HttpMethod.PUT.name(),HttpMethod.DELETE.name()));
         config.setMaxAge(3600L);
         source.registerCorsConfiguration("/**", config);
@@ -1,12 +1,19 @@
 package com.example.EstoqueManager.controller;
 
+import com.example.EstoqueManager.dto.CategoriaResumoDTO;
+import com.example.EstoqueManager.dto.PaginaDTO;
 import com.example.EstoqueManager.model.CategoriaModel;
+import com.example.EstoqueManager.model.ProdutoModel;
 import com.example.EstoqueManager.service.CategoriaService;
+import com.example.EstoqueManager.service.ProdutoService;
+import com.example.EstoqueManager.service.VersaoCatalogo;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,10 +24,32 @@ import java.util.List;
 public class CategoriaController {
 
     private final CategoriaService categoriaService;
+    private final ProdutoService produtoService;
+    private final VersaoCatalogo versaoCatalogo;
 
+    // Mesmo ETag de /produto/findAll: as categorias trazem os produtos com o estoque
     @GetMapping("/categoria/findAll")
-    public ResponseEntity<List<CategoriaModel>> findAll() {
-        return ResponseEntity.ok(categoriaService.findAll());
+    public ResponseEntity<List<CategoriaModel>> findAll(WebRequest request) {
+        String etag = versaoCatalogo.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(categoriaService.findAll());
+    }
+
+    // Nome e totais de cada categoria, sem carregar os produtos
+    @GetMapping("/categoria/resumo")
+    public ResponseEntity<List<CategoriaResumoDTO>> resumo() {
+        return ResponseEntity.ok(categoriaService.buscarResumos());
+    }
+
+    @GetMapping("/categoria/{id}/produtos")
+    public ResponseEntity<PaginaDTO<ProdutoModel>> findProdutos(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(produtoService.findPageDaCategoria(id, cursor, tamanho));
     }
 
     @GetMapping("/categoria/findById/{id}")
@@ -1,7 +1,11 @@
 package com.example.EstoqueManager.controller;
 
+import com.example.EstoqueManager.dto.CompradorResumoDTO;
+import com.example.EstoqueManager.dto.PaginaDTO;
 import com.example.EstoqueManager.model.CompradorModel;
+import com.example.EstoqueManager.model.VendaModel;
 import com.example.EstoqueManager.service.CompradorService;
+import com.example.EstoqueManager.service.VendaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -17,17 +21,35 @@ import java.util.List;
 public class CompradorController {
 
     private final CompradorService compradorService;
+    private final VendaService vendaService;
 
     @GetMapping("/comprador/findAll")
-    public ResponseEntity<List<CompradorModel>> findAll() {
-        return ResponseEntity.ok(compradorService.findAll());
+    public ResponseEntity<List<CompradorResumoDTO>> findAll() {
+        // No máximo paginacao.tamanho-maximo compradores; o restante segue em /comprador/findPage (X-Proximo-Cursor)
+        PaginaDTO<CompradorResumoDTO> pagina = compradorService.findAll();
+        return ResponseEntity.ok().headers(pagina.cabecalhos()).body(pagina.getItens());
+    }
+
+    @GetMapping("/comprador/findPage")
+    public ResponseEntity<PaginaDTO<CompradorResumoDTO>> findPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(compradorService.findPage(cursor, tamanho));
     }
 
     @GetMapping("/comprador/findById/{id}")
-    public ResponseEntity<CompradorModel> findById(@PathVariable Long id) {
+    public ResponseEntity<CompradorResumoDTO> findById(@PathVariable Long id) {
         return ResponseEntity.ok(compradorService.findById(id));
     }
 
+    @GetMapping("/comprador/{id}/vendas")
+    public ResponseEntity<PaginaDTO<VendaModel>> findVendas(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(vendaService.buscarPaginaDoComprador(id, cursor, tamanho));
+    }
+
     @PostMapping("/comprador/save")
     public ResponseEntity<CompradorModel> save(@Valid @RequestBody CompradorModel comprador) {
         return ResponseEntity.status(HttpStatus.CREATED).body(compradorService.save(comprador));
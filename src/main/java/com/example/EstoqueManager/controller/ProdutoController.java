@@ -1,17 +1,31 @@
 
 package com.example.EstoqueManager.controller;
 
+import com.example.EstoqueManager.dto.CurvaABCParticaoDTO;
+import com.example.EstoqueManager.dto.DisponibilidadeProdutoDTO;
+import com.example.EstoqueManager.dto.EstoqueEmDataDTO;
+import com.example.EstoqueManager.dto.PaginaDTO;
+import com.example.EstoqueManager.dto.ProdutoBuscaDTO;
 import com.example.EstoqueManager.dto.ProdutoCurvaABCDTO;
 import com.example.EstoqueManager.model.ProdutoModel;
 import com.example.EstoqueManager.model.UsuarioModel;
+import com.example.EstoqueManager.service.BuscaProdutoService;
+import com.example.EstoqueManager.service.CurvaABCService;
+import com.example.EstoqueManager.service.MovimentacaoEstoqueService;
 import com.example.EstoqueManager.service.ProdutoService;
+import com.example.EstoqueManager.service.ReservaCarrinhoService;
 import com.example.EstoqueManager.service.UsuarioService;
+import com.example.EstoqueManager.service.VersaoCatalogo;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,10 +36,41 @@ public class ProdutoController {
 
     private final ProdutoService produtoService;
     private final UsuarioService usuarioService;
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final ReservaCarrinhoService reservaCarrinhoService;
+    private final VersaoCatalogo versaoCatalogo;
+    private final BuscaProdutoService buscaProdutoService;
+    private final CurvaABCService curvaABCService;
 
+    // Com If-None-Match igual à versão atual do catálogo responde 304 sem consultar os produtos.
+    // A versão é lida antes da consulta, então nunca identifica dados mais antigos que os devolvidos.
     @GetMapping("/produto/findAll")
-    public ResponseEntity<List<ProdutoModel>> findAll() {
-        return ResponseEntity.ok(produtoService.findAll());
+    public ResponseEntity<List<ProdutoModel>> findAll(WebRequest request) {
+        String etag = versaoCatalogo.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+
+        // No máximo paginacao.tamanho-maximo produtos; o restante segue em /produto/findPage (X-Proximo-Cursor)
+        PaginaDTO<ProdutoModel> pagina = produtoService.findAll();
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).headers(pagina.cabecalhos())
+                .body(pagina.getItens());
+    }
+
+    @GetMapping("/produto/findPage")
+    public ResponseEntity<PaginaDTO<ProdutoModel>> findPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(produtoService.findPage(cursor, tamanho));
+    }
+
+    // Busca por nome para o type-ahead do caixa (prefixo das palavras ou aproximada), respondida da memória
+    @GetMapping("/produto/buscar")
+    public ResponseEntity<List<ProdutoBuscaDTO>> buscar(
+            @RequestParam String termo,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(buscaProdutoService.buscar(termo, categoriaId, limite));
     }
 
     @GetMapping("/produto/findById/{id}")
@@ -52,12 +97,59 @@ public class ProdutoController {
         return ResponseEntity.ok(produtoService.updateByID(id, produtoUpdated, usuario));
     }
 
+    @GetMapping("/produto/estoque-em/{id}")
+    public ResponseEntity<EstoqueEmDataDTO> estoqueEm(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime data) {
+
+        return ResponseEntity.ok(movimentacaoEstoqueService.estoqueEm(id, data));
+    }
+
+    // Estoque menos o que está preso em reservas de carrinho
+    @GetMapping("/produto/disponivel/{id}")
+    public ResponseEntity<DisponibilidadeProdutoDTO> disponivel(@PathVariable Long id) {
+        return ResponseEntity.ok(reservaCarrinhoService.disponibilidade(id));
+    }
+
+    // Sem parâmetros é a curva de sempre (todo o histórico, A até 80%, B até 95%)
     @GetMapping("produto/curva-abc")
-    public ResponseEntity<List<ProdutoCurvaABCDTO>> getCurvaABC() {
-        List<ProdutoCurvaABCDTO> curvaABC = produtoService.getCurvaABC();
+    public ResponseEntity<List<ProdutoCurvaABCDTO>> getCurvaABC(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(required = false) Long usuarioId,
+            @RequestParam(required = false) Double limiteA,
+            @RequestParam(required = false) Double limiteB) {
+
+        List<ProdutoCurvaABCDTO> curvaABC = curvaABCService.curva(
+                new CurvaABCService.Filtro(de, ate, categoriaId, usuarioId, limiteA, limiteB));
         return ResponseEntity.ok(curvaABC);
     }
 
+    @GetMapping("produto/curva-abc/por-categoria")
+    public ResponseEntity<List<CurvaABCParticaoDTO>> getCurvaABCPorCategoria(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+            @RequestParam(required = false) Long usuarioId,
+            @RequestParam(required = false) Double limiteA,
+            @RequestParam(required = false) Double limiteB) {
+
+        return ResponseEntity.ok(curvaABCService.curvaPorCategoria(
+                new CurvaABCService.Filtro(de, ate, null, usuarioId, limiteA, limiteB)));
+    }
+
+    @GetMapping("produto/curva-abc/por-usuario")
+    public ResponseEntity<List<CurvaABCParticaoDTO>> getCurvaABCPorUsuario(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(required = false) Double limiteA,
+            @RequestParam(required = false) Double limiteB) {
+
+        return ResponseEntity.ok(curvaABCService.curvaPorUsuario(
+                new CurvaABCService.Filtro(de, ate, categoriaId, null, limiteA, limiteB)));
+    }
+
 
     @DeleteMapping("/produto/delete/{id}")
     public ResponseEntity<Void> deleteById(@PathVariable Long id) {
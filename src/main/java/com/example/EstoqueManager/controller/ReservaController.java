@@ -0,0 +1,42 @@
+package com.example.EstoqueManager.controller;
+
+import com.example.EstoqueManager.dto.ReservaDTO;
+import com.example.EstoqueManager.dto.ReservaRequestDTO;
+import com.example.EstoqueManager.model.UsuarioModel;
+import com.example.EstoqueManager.service.ReservaCarrinhoService;
+import com.example.EstoqueManager.service.UsuarioService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/emanager")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", allowedHeaders = "*", allowCredentials = "false")
+public class ReservaController {
+
+    private final ReservaCarrinhoService reservaCarrinhoService;
+    private final UsuarioService usuarioService;
+
+    @GetMapping("/reserva/findById/{id}")
+    public ResponseEntity<ReservaDTO> findById(@PathVariable String id) {
+        return ResponseEntity.ok(reservaCarrinhoService.buscarPorId(id));
+    }
+
+    @PostMapping("/reserva/save/{usuarioId}")
+    public ResponseEntity<ReservaDTO> save(
+            @PathVariable Long usuarioId,
+            @Valid @RequestBody ReservaRequestDTO reserva) {
+
+        UsuarioModel usuario = usuarioService.findById(usuarioId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservaCarrinhoService.criar(reserva, usuario.getId()));
+    }
+
+    @DeleteMapping("/reserva/delete/{id}")
+    public ResponseEntity<Void> deleteById(@PathVariable String id) {
+        reservaCarrinhoService.liberar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
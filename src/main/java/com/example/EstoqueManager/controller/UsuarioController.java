@@ -2,9 +2,13 @@
 package com.example.EstoqueManager.controller;
 
 import com.example.EstoqueManager.dto.LoginDTO;
+import com.example.EstoqueManager.dto.PaginaDTO;
+import com.example.EstoqueManager.dto.UsuarioResumoDTO;
+import com.example.EstoqueManager.model.VendaModel;
 import com.example.EstoqueManager.service.LoginService;
 import com.example.EstoqueManager.model.UsuarioModel;
 import com.example.EstoqueManager.service.UsuarioService;
+import com.example.EstoqueManager.service.VendaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -21,6 +25,7 @@ public class UsuarioController {
 
     private final UsuarioService usuarioService;
     private final LoginService loginService;
+    private final VendaService vendaService;
 
     @PostMapping("/login")
     public ResponseEntity<String> logar(@RequestBody LoginDTO loginDTO) {
@@ -30,13 +35,31 @@ public class UsuarioController {
     }
     
     @GetMapping("/user/findAll")
-    public ResponseEntity<List<UsuarioModel>> findAll() {
-        return ResponseEntity.ok(usuarioService.findAll());
+    public ResponseEntity<List<UsuarioResumoDTO>> findAll() {
+        // No máximo paginacao.tamanho-maximo usuários; o restante segue em /user/findPage (X-Proximo-Cursor)
+        PaginaDTO<UsuarioResumoDTO> pagina = usuarioService.findAll();
+        return ResponseEntity.ok().headers(pagina.cabecalhos()).body(pagina.getItens());
+    }
+
+    @GetMapping("/user/findPage")
+    public ResponseEntity<PaginaDTO<UsuarioResumoDTO>> findPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(usuarioService.findPage(cursor, tamanho));
     }
 
     @GetMapping("/user/findById/{id}")
-    public ResponseEntity<UsuarioModel> findById(@PathVariable Long id) {
-        return ResponseEntity.ok(usuarioService.findById(id));
+    public ResponseEntity<UsuarioResumoDTO> findById(@PathVariable Long id) {
+        return ResponseEntity.ok(usuarioService.buscarResumoPorId(id));
+    }
+
+    // As vendas do usuário só saem por aqui, paginadas (mais recentes primeiro)
+    @GetMapping("/user/{id}/vendas")
+    public ResponseEntity<PaginaDTO<VendaModel>> findVendas(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(vendaService.buscarPaginaDoUsuario(id, cursor, tamanho));
     }
 
     @PostMapping("/user/save")
@@ -1,17 +1,35 @@
 package com.example.EstoqueManager.controller;
 
+import com.example.EstoqueManager.dto.AnaliseVendaDTO;
+import com.example.EstoqueManager.dto.CancelamentoLoteDTO;
+import com.example.EstoqueManager.dto.CancelamentoLoteResultadoDTO;
+import com.example.EstoqueManager.dto.PaginaDTO;
+import com.example.EstoqueManager.dto.ResumoVendaDTO;
+import com.example.EstoqueManager.dto.VendaLoteResultadoDTO;
 import com.example.EstoqueManager.dto.VendaRequestDTO;
 import com.example.EstoqueManager.model.VendaModel;
 import com.example.EstoqueManager.model.UsuarioModel;
+import com.example.EstoqueManager.service.AnaliseVendasService;
+import com.example.EstoqueManager.service.IdempotenciaVendaService;
 import com.example.EstoqueManager.service.ProdutoService;
+import com.example.EstoqueManager.service.ResumoVendaService;
 import com.example.EstoqueManager.service.UsuarioService;
+import com.example.EstoqueManager.service.VendaExportacaoService;
+import com.example.EstoqueManager.service.VendaGroupCommitService;
+import com.example.EstoqueManager.service.VendaLoteService;
 import com.example.EstoqueManager.service.VendaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,13 +39,85 @@ import java.util.List;
 public class VendaController {
 
     private final VendaService vendaService;
+    private final VendaLoteService vendaLoteService;
+    private final IdempotenciaVendaService idempotenciaVendaService;
+    private final VendaGroupCommitService vendaGroupCommitService;
     private final UsuarioService usuarioService;
     private final ProdutoService produtoService;
+    private final VendaExportacaoService vendaExportacaoService;
+    private final ResumoVendaService resumoVendaService;
+    private final AnaliseVendasService analiseVendasService;
 
 
+    // No máximo paginacao.tamanho-maximo vendas; se houver mais, o cursor para /venda/findPage?ordem=id
+    // vem no cabeçalho X-Proximo-Cursor
     @GetMapping("/venda/findAll")
     public ResponseEntity<List<VendaModel>> findAll() {
-        return ResponseEntity.ok(vendaService.listarVendas());
+        PaginaDTO<VendaModel> pagina = vendaService.listarVendas();
+        return ResponseEntity.ok().headers(pagina.cabecalhos()).body(pagina.getItens());
+    }
+
+    // ordem: "data" (mais recentes primeiro) ou "id"
+    @GetMapping("/venda/findPage")
+    public ResponseEntity<PaginaDTO<VendaModel>> findPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(defaultValue = "data") String ordem) {
+        return ResponseEntity.ok(vendaService.buscarPagina(cursor, tamanho, ordem));
+    }
+
+    // Exportação completa em NDJSON (uma venda por linha) ou CSV (uma linha por item), escrita em streaming
+    @GetMapping("/venda/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate) {
+
+        VendaExportacaoService.Formato formatoExportacao = vendaExportacaoService.validar(formato, de, ate);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoExportacao.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"vendas." + formatoExportacao.getExtensao() + "\"")
+                .body(saida -> vendaExportacaoService.exportar(formatoExportacao, de, ate, saida));
+    }
+
+    // Relatório de vendas ativas no período [de, ate), somado dos resumos por hora/dia.
+    // dimensao: TOTAL, METODO_PAGAMENTO, PRODUTO ou USUARIO; com granularidade (HORA ou DIA), um total por período
+    @GetMapping("/venda/resumo")
+    public ResponseEntity<List<? extends ResumoVendaDTO>> resumo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+            @RequestParam(defaultValue = "TOTAL") String dimensao,
+            @RequestParam(required = false) String granularidade) {
+
+        return ResponseEntity.ok(resumoVendaService.resumo(de, ate, dimensao, granularidade));
+    }
+
+    // Remonta os resumos dos dias informados (inclusive) a partir das vendas gravadas
+    @PostMapping("/venda/resumo/reprocessar")
+    public ResponseEntity<Void> reprocessarResumo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+
+        resumoVendaService.reprocessar(de, ate);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Análise ad hoc na cópia em memória dos itens de venda (venda.analise.enabled), período [de, ate).
+    // agrupar: NENHUM, PRODUTO, USUARIO, METODO_PAGAMENTO, HORA ou DIA
+    @GetMapping("/venda/analise")
+    public ResponseEntity<List<AnaliseVendaDTO>> analise(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+            @RequestParam(required = false) Long produtoId,
+            @RequestParam(required = false) Long usuarioId,
+            @RequestParam(required = false) String metodoPagamento,
+            @RequestParam(defaultValue = "false") boolean incluirCanceladas,
+            @RequestParam(defaultValue = "NENHUM") String agrupar) {
+
+        return ResponseEntity.ok(analiseVendasService.consultar(new AnaliseVendasService.Filtro(
+                de, ate, produtoId, usuarioId, metodoPagamento, incluirCanceladas), agrupar));
     }
 
     @GetMapping("/venda/findById/{id}")
@@ -36,8 +126,9 @@ public class VendaController {
     }
 
     @PostMapping("/venda/save/{usuarioId}")
-    public ResponseEntity<VendaModel> criarVenda(
+    public ResponseEntity<?> criarVenda(
             @PathVariable Long usuarioId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia,
             @Valid @RequestBody VendaRequestDTO vendaRequestDTO) {
 
         // Log para debug
@@ -46,11 +137,37 @@ public class VendaController {
         System.out.println("metodoPagamento: " + vendaRequestDTO.getMetodoPagamento());
         System.out.println("itens size: " + (vendaRequestDTO.getItens() != null ? vendaRequestDTO.getItens().size() : 0));
 
-        VendaModel venda = vendaService.criarVendaAPartirDTO(vendaRequestDTO, usuarioId);
+        // Com Idempotency-Key, uma nova tentativa do mesmo POST devolve a resposta original
+        if (chaveIdempotencia != null) {
+            return ResponseEntity.status(HttpStatus.CREATED).contentType(MediaType.APPLICATION_JSON)
+                    .body(idempotenciaVendaService.criarVenda(chaveIdempotencia, vendaRequestDTO, usuarioId));
+        }
+
+        VendaModel venda;
+        if (vendaGroupCommitService.isHabilitado()) {
+            venda = vendaGroupCommitService.criarVenda(vendaRequestDTO, usuarioId);
+        } else {
+            venda = vendaService.criarVendaAPartirDTO(vendaRequestDTO, usuarioId);
+        }
 
         return ResponseEntity.status(HttpStatus.CREATED).body(venda);
     }
 
+    @PostMapping("/venda/save-lote/{usuarioId}")
+    public ResponseEntity<List<VendaLoteResultadoDTO>> criarVendasEmLote(
+            @PathVariable Long usuarioId,
+            @RequestBody List<VendaRequestDTO> vendas) {
+
+        return ResponseEntity.ok(vendaLoteService.registrarLote(vendas, usuarioId));
+    }
+
+    @PostMapping("/venda/cancelar-lote")
+    public ResponseEntity<CancelamentoLoteResultadoDTO> cancelarVendasEmLote(
+            @Valid @RequestBody CancelamentoLoteDTO cancelamento) {
+
+        return ResponseEntity.ok(vendaLoteService.cancelarLote(cancelamento));
+    }
+
     @PutMapping("/venda/update/{id}")
     public ResponseEntity<VendaModel> updateVenda(
             @PathVariable Long id,
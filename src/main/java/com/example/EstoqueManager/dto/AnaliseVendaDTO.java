@@ -0,0 +1,19 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Um grupo da análise em memória: produto, vendedor, forma de pagamento, início da hora/dia ou vazio (sem agrupamento)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnaliseVendaDTO {
+    private String chave;
+    private Long quantidade;
+    private Double valorTotal;
+    // Itens de venda somados no grupo
+    private Long itens;
+}
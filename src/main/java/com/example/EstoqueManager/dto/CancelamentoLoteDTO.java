@@ -0,0 +1,24 @@
+package com.example.EstoqueManager.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CancelamentoLoteDTO {
+
+    @NotNull(message = "IDs das vendas são obrigatórios")
+    @Size(min = 1, message = "Informe pelo menos uma venda")
+    private List<Long> vendaIds;
+
+    @NotNull(message = "Informe se os itens foram devolvidos (itensDevolvidos: true/false)")
+    private Boolean itensDevolvidos;
+}
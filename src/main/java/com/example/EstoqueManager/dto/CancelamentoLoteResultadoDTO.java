@@ -0,0 +1,17 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CancelamentoLoteResultadoDTO {
+    private List<Long> canceladas;
+    private List<Long> ignoradas; // não encontradas ou já canceladas
+}
@@ -0,0 +1,19 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Categoria com os totais dos seus produtos, sem a lista de produtos
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoriaResumoDTO {
+    private Long id;
+    private String nome;
+    private Long quantidadeProdutos;
+    private Long quantidadeProdutosAtivos;
+    private Double valorTotalEstoque;
+}
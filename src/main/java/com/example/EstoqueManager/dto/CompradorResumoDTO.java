@@ -0,0 +1,9 @@
+package com.example.EstoqueManager.dto;
+
+// Projeção para listagem e detalhe de compradores, sem as vendas
+public interface CompradorResumoDTO {
+    Long getId();
+    String getNome();
+    String getCpf();
+    String getEmail();
+}
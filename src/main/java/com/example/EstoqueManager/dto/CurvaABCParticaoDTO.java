@@ -0,0 +1,19 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// Curva ABC de uma partição (uma categoria ou um vendedor)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurvaABCParticaoDTO {
+    private Long id;
+    private String nome;
+    private List<ProdutoCurvaABCDTO> produtos;
+}
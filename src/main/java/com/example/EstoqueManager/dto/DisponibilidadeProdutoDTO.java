@@ -0,0 +1,17 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadeProdutoDTO {
+    private Long produtoId;
+    private Integer estoque;
+    private Integer reservado;
+    private Integer disponivel;
+}
@@ -0,0 +1,18 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstoqueEmDataDTO {
+    private Long produtoId;
+    private LocalDateTime data;
+    private Long quantidade;
+}
@@ -0,0 +1,8 @@
+package com.example.EstoqueManager.dto;
+
+// Projeção com o valor total vendido de um produto (quantidade * preço somados no banco)
+public interface FaturamentoPorProdutoDTO {
+    Long getProdutoId();
+    String getNome();
+    Double getValorTotal();
+}
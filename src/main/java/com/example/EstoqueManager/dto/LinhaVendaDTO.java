@@ -0,0 +1,16 @@
+package com.example.EstoqueManager.dto;
+
+import com.example.EstoqueManager.model.MetodoPagamento;
+
+import java.time.LocalDateTime;
+
+// Projeção de um item de venda com os dados da venda usados nos resumos
+public interface LinhaVendaDTO {
+    Long getVendaId();
+    LocalDateTime getData();
+    Long getUsuarioId();
+    MetodoPagamento getMetodoPagamento();
+    Long getProdutoId();
+    Integer getQuantidade();
+    Double getPrecoVendido();
+}
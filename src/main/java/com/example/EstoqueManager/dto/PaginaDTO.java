@@ -0,0 +1,30 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+// Página de uma listagem paginada por cursor; proximoCursor é null na última página
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    private List<T> itens;
+    private String proximoCursor;
+
+    // Para as listagens que devolvem só a lista: o cursor da próxima página vai no cabeçalho
+    public static final String CABECALHO_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
+    public HttpHeaders cabecalhos() {
+        HttpHeaders cabecalhos = new HttpHeaders();
+        if (proximoCursor != null) {
+            cabecalhos.set(CABECALHO_PROXIMO_CURSOR, proximoCursor);
+        }
+        return cabecalhos;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Produto como aparece na busca por nome (sem estoque, que muda a cada venda)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProdutoBuscaDTO {
+    private Long id;
+    private String nome;
+    private Double preco;
+    private Boolean ativo;
+    private Long categoriaId;
+    private String categoriaNome;
+}
@@ -0,0 +1,7 @@
+package com.example.EstoqueManager.dto;
+
+// Projeção com a quantidade total de um produto somada em um conjunto de itens de venda
+public interface QuantidadePorProdutoDTO {
+    Long getProdutoId();
+    Long getQuantidade();
+}
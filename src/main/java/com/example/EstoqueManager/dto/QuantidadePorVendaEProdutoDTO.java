@@ -0,0 +1,8 @@
+package com.example.EstoqueManager.dto;
+
+// Projeção com a quantidade de um produto somada nos itens de uma venda
+public interface QuantidadePorVendaEProdutoDTO {
+    Long getVendaId();
+    Long getProdutoId();
+    Long getQuantidade();
+}
@@ -0,0 +1,20 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaDTO {
+    private String id;
+    private Long usuarioId;
+    private LocalDateTime expiraEm;
+    private List<ReservaRequestDTO.ItemReservaDTO> itens;
+}
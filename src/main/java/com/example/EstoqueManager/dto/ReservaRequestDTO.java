@@ -0,0 +1,32 @@
+package com.example.EstoqueManager.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaRequestDTO {
+
+    @Valid
+    @NotNull(message = "Itens da reserva são obrigatórios")
+    @Size(min = 1, message = "A reserva deve conter pelo menos um item")
+    private List<ItemReservaDTO> itens;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemReservaDTO {
+        @NotNull(message = "ID do produto é obrigatório")
+        private Long produtoId;
+
+        @NotNull(message = "Quantidade é obrigatória")
+        private Integer quantidade;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.EstoqueManager.dto;
+
+// Projeção com os totais de um item do recorte (produto, vendedor, forma de pagamento) somados no período
+public interface ResumoVendaDTO {
+    String getChave();
+    Double getValorTotal();
+    Long getQuantidade();
+    Long getVendas();
+}
@@ -0,0 +1,8 @@
+package com.example.EstoqueManager.dto;
+
+import java.time.LocalDateTime;
+
+// Os mesmos totais, separados por hora ou dia
+public interface ResumoVendaPeriodoDTO extends ResumoVendaDTO {
+    LocalDateTime getInicio();
+}
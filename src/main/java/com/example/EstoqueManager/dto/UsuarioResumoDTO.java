@@ -0,0 +1,13 @@
+package com.example.EstoqueManager.dto;
+
+import com.example.EstoqueManager.model.Cargo;
+
+// Projeção para listagem e detalhe de usuários: só as colunas da tabela, sem senha e sem as vendas
+public interface UsuarioResumoDTO {
+    Long getId();
+    String getNome();
+    String getCpf();
+    Integer getIdade();
+    String getLogin();
+    Cargo getCargo();
+}
@@ -0,0 +1,17 @@
+package com.example.EstoqueManager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendaLoteResultadoDTO {
+    private Integer indice; // posição da venda na lista enviada
+    private Long vendaId;
+    private Boolean sucesso;
+    private String erro;
+}
@@ -20,6 +20,8 @@ public class VendaRequestDTO {
 
     private Double valorPago;  // Pode ser null para métodos não-dinheiro
 
+    private String reservaId;  // Opcional: reserva de carrinho criada em /reserva/save, consumida pela venda
+
     @NotNull(message = "Itens da venda são obrigatórios")
     @Size(min = 1, message = "A venda deve conter pelo menos um item")
     private List<ItemVendaRequestDTO> itens;
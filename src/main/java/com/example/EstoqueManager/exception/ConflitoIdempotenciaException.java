@@ -0,0 +1,8 @@
+package com.example.EstoqueManager.exception;
+
+// Idempotency-Key repetida com um corpo diferente do da primeira requisição (HTTP 422)
+public class ConflitoIdempotenciaException extends RuntimeException {
+    public ConflitoIdempotenciaException(String message) {
+        super(message);
+    }
+}
@@ -6,11 +6,14 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
 @Table(name = "categoria_table")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categorias")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,9 @@
+package com.example.EstoqueManager.model;
+
+// Recorte de uma linha de resumo_venda_table; a chave da linha é o ID ou nome do item do recorte
+public enum DimensaoResumo {
+    TOTAL,
+    METODO_PAGAMENTO,
+    PRODUTO,
+    USUARIO
+}
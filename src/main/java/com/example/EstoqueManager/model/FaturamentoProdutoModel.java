@@ -0,0 +1,24 @@
+package com.example.EstoqueManager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Total vendido de um produto (valor e unidades) somando todos os itens de venda já gravados.
+// Mantido incrementalmente pelas vendas; é a base da curva ABC (ver FaturamentoProdutoService).
+@Entity
+@Table(name = "faturamento_produto_table")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FaturamentoProdutoModel {
+
+    @Id
+    private Long produtoId;
+
+    @Column(nullable = false)
+    private Double valorTotal;
+
+    @Column(nullable = false)
+    private Long quantidadeVendida;
+}
@@ -0,0 +1,6 @@
+package com.example.EstoqueManager.model;
+
+public enum GranularidadeResumo {
+    HORA,
+    DIA
+}
@@ -0,0 +1,64 @@
+package com.example.EstoqueManager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotencia_venda_table", indexes = @Index(columnList = "criadoEm"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdempotenciaVendaModel implements Persistable<String> {
+
+    @Id
+    @Column(length = 100)
+    private String chave;
+
+    @Column(nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false)
+    private Long vendaId;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+
+    // SHA-256 do corpo da primeira requisição; a mesma chave com outro corpo é recusada
+    @Column(nullable = false, length = 64)
+    private String hashRequisicao;
+
+    // JSON devolvido na primeira requisição, repetido igual nas novas tentativas
+    @Lob
+    @Column(nullable = false)
+    private String resposta;
+
+    // Sempre INSERT (nunca merge): uma chave repetida tem que falhar na constraint de PK
+    @Transient
+    private boolean novo = true;
+
+    public IdempotenciaVendaModel(String chave, Long usuarioId, Long vendaId, LocalDateTime criadoEm) {
+        this.chave = chave;
+        this.usuarioId = usuarioId;
+        this.vendaId = vendaId;
+        this.criadoEm = criadoEm;
+    }
+
+    @Override
+    public String getId() {
+        return chave;
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarComoExistente() {
+        this.novo = false;
+    }
+}
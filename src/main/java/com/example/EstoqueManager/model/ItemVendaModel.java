@@ -13,8 +13,12 @@ import lombok.*;
 @AllArgsConstructor
 public class ItemVendaModel {
 
+    // Ids em blocos (pooled) para o Hibernate conseguir agrupar os INSERTs em lote; ver GeradorIdInicializador
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "item_venda_id")
+    @TableGenerator(name = "item_venda_id", table = "id_gerador_table",
+            pkColumnName = "nome_sequencia", valueColumnName = "proximo_valor",
+            pkColumnValue = "item_venda", allocationSize = 50)
     private Long id;
 
     @JsonBackReference("venda-item")
@@ -23,7 +27,7 @@ public class ItemVendaModel {
     private VendaModel venda;
 
     @ManyToOne(fetch = FetchType.EAGER)
-    @JsonIgnoreProperties({"categoria", "usuarioUltimaAlteracao"})
+    @JsonIgnoreProperties({"categoria", "usuarioUltimaAlteracao", "hibernateLazyInitializer", "handler"})
     @JoinColumn(name = "produto_id", nullable = false)
     private ProdutoModel produto;
 
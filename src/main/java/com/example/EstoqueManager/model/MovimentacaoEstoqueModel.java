@@ -0,0 +1,48 @@
+package com.example.EstoqueManager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Livro de movimentações de estoque: só recebe INSERTs. A quantidade é o delta com sinal
+// (venda negativa, devolução positiva, ajuste manual com a diferença gravada no produto).
+@Entity
+@Table(name = "movimentacao_estoque_table", indexes = {
+        @Index(columnList = "produtoId, data"),
+        @Index(columnList = "epoca")})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimentacaoEstoqueModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "movimentacao_estoque_id")
+    @TableGenerator(name = "movimentacao_estoque_id", table = "id_gerador_table",
+            pkColumnName = "nome_sequencia", valueColumnName = "proximo_valor",
+            pkColumnValue = "movimentacao_estoque", allocationSize = 50)
+    private Long id;
+
+    // IDs simples, sem FK: o histórico continua válido mesmo se o produto for excluído
+    @Column(nullable = false)
+    private Long produtoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoMovimentacao tipo;
+
+    @Column(nullable = false)
+    private Integer quantidade;
+
+    @Column(nullable = false)
+    private LocalDateTime data;
+
+    private Long vendaId;
+
+    private Long usuarioId;
+
+    // Época do livro em que a movimentação foi confirmada; ver MovimentacaoEstoqueService
+    @Column(nullable = false)
+    private Long epoca;
+}
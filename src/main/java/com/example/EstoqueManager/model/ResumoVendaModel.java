@@ -0,0 +1,50 @@
+package com.example.EstoqueManager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Totais das vendas ativas em uma hora ou um dia: no geral, por forma de pagamento, por produto e por vendedor.
+// Mantido na transação de cada venda e remontado a partir do histórico (ver ResumoVendaService).
+// A chave única começa pelo recorte para os relatórios lerem uma faixa contínua do índice.
+@Entity
+@Table(name = "resumo_venda_table", uniqueConstraints =
+        @UniqueConstraint(columnNames = {"dimensao", "granularidade", "inicio", "chave"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoVendaModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DimensaoResumo dimensao;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private GranularidadeResumo granularidade;
+
+    // Começo da hora ou do dia
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    // ID do produto ou do vendedor, nome da forma de pagamento; vazia no TOTAL
+    @Column(nullable = false, length = 40)
+    private String chave;
+
+    @Column(nullable = false)
+    private Double valorTotal;
+
+    // Unidades vendidas
+    @Column(nullable = false)
+    private Long quantidade;
+
+    // Vendas (tickets) que entraram na linha
+    @Column(nullable = false)
+    private Long vendas;
+}
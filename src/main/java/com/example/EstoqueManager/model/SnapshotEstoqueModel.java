@@ -0,0 +1,36 @@
+package com.example.EstoqueManager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Saldo de um produto somando todas as movimentações até a época "epoca" (inclusive), gerado em "data";
+// ver MovimentacaoEstoqueService
+@Entity
+@Table(name = "snapshot_estoque_table", indexes = @Index(columnList = "produtoId, data"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotEstoqueModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "snapshot_estoque_id")
+    @TableGenerator(name = "snapshot_estoque_id", table = "id_gerador_table",
+            pkColumnName = "nome_sequencia", valueColumnName = "proximo_valor",
+            pkColumnValue = "snapshot_estoque", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long produtoId;
+
+    @Column(nullable = false)
+    private LocalDateTime data;
+
+    @Column(nullable = false)
+    private Integer quantidade;
+
+    @Column(nullable = false)
+    private Long epoca;
+}
@@ -0,0 +1,7 @@
+package com.example.EstoqueManager.model;
+
+public enum TipoMovimentacao {
+    VENDA,
+    DEVOLUCAO,
+    AJUSTE
+}
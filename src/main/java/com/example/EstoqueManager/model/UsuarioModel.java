@@ -3,6 +3,8 @@ package com.example.EstoqueManager.model;
 import com.fasterxml.jackson.annotation.*;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,6 +15,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "usuario_table")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
 @Getter
 @Setter
 @NoArgsConstructor
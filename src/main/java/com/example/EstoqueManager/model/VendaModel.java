@@ -9,14 +9,29 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Plano de busca da tela de detalhe: venda, itens e produtos (com o que o JSON do produto usa) em um único SELECT
+@NamedEntityGraph(name = "VendaModel.detalhe",
+        attributeNodes = @NamedAttributeNode(value = "itens", subgraph = "itens"),
+        subgraphs = {
+                @NamedSubgraph(name = "itens", attributeNodes = @NamedAttributeNode(value = "produto", subgraph = "produto")),
+                @NamedSubgraph(name = "produto", attributeNodes = {
+                        @NamedAttributeNode("categoria"), @NamedAttributeNode("usuarioUltimaAlteracao")})
+        })
 @Entity
 @Getter
 @Setter
-@Table(name = "venda_table")
+@Table(name = "venda_table", indexes = {
+        @Index(columnList = "data, id"),
+        @Index(columnList = "usuario_id, data, id"),
+        @Index(columnList = "comprador_id, data, id")})
 public class VendaModel {
 
+    // Ids em blocos (pooled) para o Hibernate conseguir agrupar os INSERTs em lote; ver GeradorIdInicializador
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "venda_id")
+    @TableGenerator(name = "venda_id", table = "id_gerador_table",
+            pkColumnName = "nome_sequencia", valueColumnName = "proximo_valor",
+            pkColumnValue = "venda", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -41,13 +56,14 @@ public class VendaModel {
     @Column(nullable = false)
     private Boolean itensDevolvidos = false;
 
+    // LAZY: não entram no JSON da venda (back reference), então não precisam ser carregados a cada venda
     @JsonBackReference("usuario-venda")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private UsuarioModel usuario;
 
     @JsonBackReference("comprador-venda")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "comprador_id")
     private CompradorModel comprador;
 
@@ -1,17 +1,31 @@
 package com.example.EstoqueManager.repository;
 
+import com.example.EstoqueManager.dto.CategoriaResumoDTO;
 import com.example.EstoqueManager.model.CategoriaModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional; // <--- NOVA IMPORTAÇÃO
 
 @Repository
 public interface CategoriaRepository extends JpaRepository<CategoriaModel, Long> {
 
     // NOVO: Método para checar duplicidade no SAVE
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<CategoriaModel> findByNome(String nome);
 
     // NOVO: Método para checar duplicidade no UPDATE
     Optional<CategoriaModel> findByNomeAndIdNot(String nome, Long id);
+
+    // Totais de todas as categorias em um único GROUP BY (LEFT JOIN para incluir categorias vazias)
+    @Query("SELECT new com.example.EstoqueManager.dto.CategoriaResumoDTO(c.id, c.nome, COUNT(p.id), " +
+            "COALESCE(SUM(CASE WHEN p.ativo = true THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(p.quantidade * p.preco), 0.0)) " +
+            "FROM CategoriaModel c LEFT JOIN c.produtos p GROUP BY c.id, c.nome ORDER BY c.nome")
+    List<CategoriaResumoDTO> buscarResumos();
 }
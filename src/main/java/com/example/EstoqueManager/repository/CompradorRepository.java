@@ -1,9 +1,18 @@
 package com.example.EstoqueManager.repository;
 
+import com.example.EstoqueManager.dto.CompradorResumoDTO;
 import com.example.EstoqueManager.model.CompradorModel;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CompradorRepository extends JpaRepository<CompradorModel, Long> {
+
+    Optional<CompradorResumoDTO> findProjectedById(Long id);
+
+    List<CompradorResumoDTO> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
 }
@@ -0,0 +1,32 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.dto.FaturamentoPorProdutoDTO;
+import com.example.EstoqueManager.model.FaturamentoProdutoModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FaturamentoProdutoRepository extends JpaRepository<FaturamentoProdutoModel, Long>,
+        FaturamentoProdutoRepositoryCustom {
+
+    // Produtos com venda, do maior para o menor faturamento
+    @Query("SELECT f.produtoId AS produtoId, p.nome AS nome, f.valorTotal AS valorTotal " +
+            "FROM FaturamentoProdutoModel f JOIN ProdutoModel p ON p.id = f.produtoId " +
+            "WHERE f.quantidadeVendida > 0 ORDER BY f.valorTotal DESC")
+    List<FaturamentoPorProdutoDTO> buscarFaturamentos();
+
+    // Cria a linha dos produtos que ainda não têm uma, somando o histórico de itens de venda deles
+    // (primeira subida com a tabela vazia, ou produto inserido fora da aplicação)
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO faturamento_produto_table (produto_id, valor_total, quantidade_vendida) " +
+            "SELECT p.id, COALESCE(SUM(i.quantidade_vendida * COALESCE(i.preco_vendido, p.preco)), 0), " +
+            "COALESCE(SUM(i.quantidade_vendida), 0) " +
+            "FROM produto_table p LEFT JOIN item_venda_table i ON i.produto_id = p.id " +
+            "WHERE NOT EXISTS (SELECT 1 FROM faturamento_produto_table f WHERE f.produto_id = p.id) " +
+            "GROUP BY p.id")
+    int criarLinhasFaltantes();
+}
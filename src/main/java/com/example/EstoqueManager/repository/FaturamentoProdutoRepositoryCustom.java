@@ -0,0 +1,12 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.model.FaturamentoProdutoModel;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface FaturamentoProdutoRepositoryCustom {
+
+    // Soma os deltas (valor e quantidade) às linhas dos produtos; retorna os produtos que ainda não têm linha
+    List<Long> acumular(Collection<FaturamentoProdutoModel> deltas);
+}
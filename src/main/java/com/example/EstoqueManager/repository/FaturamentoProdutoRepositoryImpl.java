@@ -0,0 +1,49 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.model.FaturamentoProdutoModel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class FaturamentoProdutoRepositoryImpl implements FaturamentoProdutoRepositoryCustom {
+
+    private static final String SQL_ACUMULAR = "UPDATE faturamento_produto_table " +
+            "SET valor_total = valor_total + ?, quantidade_vendida = quantidade_vendida + ? WHERE produto_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> acumular(Collection<FaturamentoProdutoModel> deltas) {
+        // Mesma ordem de produtos da baixa de estoque, para as transações travarem as linhas na mesma sequência
+        List<FaturamentoProdutoModel> linhas = new ArrayList<>(deltas);
+        linhas.sort(Comparator.comparing(FaturamentoProdutoModel::getProdutoId));
+
+        int[] atualizados = jdbcTemplate.batchUpdate(SQL_ACUMULAR, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                FaturamentoProdutoModel linha = linhas.get(i);
+                ps.setDouble(1, linha.getValorTotal());
+                ps.setLong(2, linha.getQuantidadeVendida());
+                ps.setLong(3, linha.getProdutoId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return linhas.size();
+            }
+        });
+
+        List<Long> semLinha = new ArrayList<>();
+        for (int i = 0; i < atualizados.length; i++) {
+            if (atualizados[i] == 0) {
+                semLinha.add(linhas.get(i).getProdutoId());
+            }
+        }
+        return semLinha;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.model.IdempotenciaVendaModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotenciaVendaRepository extends JpaRepository<IdempotenciaVendaModel, String> {
+
+    @Modifying
+    @Query("DELETE FROM IdempotenciaVendaModel i WHERE i.criadoEm < :limite")
+    int removerCriadasAntesDe(@Param("limite") LocalDateTime limite);
+
+    @Modifying
+    @Query("DELETE FROM IdempotenciaVendaModel i WHERE i.chave = :chave AND i.criadoEm < :limite")
+    int removerCriadasAntesDe(@Param("chave") String chave, @Param("limite") LocalDateTime limite);
+}
@@ -1,11 +1,40 @@
 package com.example.EstoqueManager.repository;
 
+import com.example.EstoqueManager.dto.LinhaVendaDTO;
+import com.example.EstoqueManager.dto.QuantidadePorVendaEProdutoDTO;
 import com.example.EstoqueManager.model.ItemVendaModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ItemVendaRepository extends
-        JpaRepository<ItemVendaModel, Long> {
+        JpaRepository<ItemVendaModel, Long>, ItemVendaRepositoryCustom {
+
+    @Query("SELECT i.venda.id AS vendaId, i.produto.id AS produtoId, SUM(i.quantidadeVendida) AS quantidade " +
+            "FROM ItemVendaModel i WHERE i.venda.id IN :vendaIds GROUP BY i.venda.id, i.produto.id")
+    List<QuantidadePorVendaEProdutoDTO> somarQuantidadesPorVendaEProduto(@Param("vendaIds") Collection<Long> vendaIds);
+
+    boolean existsByProdutoId(Long produtoId);
+
+    // Itens de todas as vendas do comprador, com o produto (preço usado quando o item não tem precoVendido)
+    @Query("SELECT i FROM ItemVendaModel i JOIN FETCH i.produto WHERE i.venda.comprador.id = :compradorId")
+    List<ItemVendaModel> buscarDoComprador(@Param("compradorId") Long compradorId);
+
+    // Itens das vendas ativas do período [de, ate), para remontar os resumos
+    @Query("SELECT v.id AS vendaId, v.data AS data, v.usuario.id AS usuarioId, v.metodoPagamento AS metodoPagamento, " +
+            "p.id AS produtoId, i.quantidadeVendida AS quantidade, COALESCE(i.precoVendido, p.preco) AS precoVendido " +
+            "FROM VendaModel v JOIN v.itens i JOIN i.produto p " +
+            "WHERE v.ativo = true AND v.data >= :de AND v.data < :ate")
+    List<LinhaVendaDTO> buscarLinhasDeVendasAtivas(@Param("de") LocalDateTime de, @Param("ate") LocalDateTime ate);
 
+    @Query("SELECT v.id AS vendaId, v.data AS data, v.usuario.id AS usuarioId, v.metodoPagamento AS metodoPagamento, " +
+            "p.id AS produtoId, i.quantidadeVendida AS quantidade, COALESCE(i.precoVendido, p.preco) AS precoVendido " +
+            "FROM VendaModel v JOIN v.itens i JOIN i.produto p WHERE v.id IN :vendaIds AND v.ativo = true")
+    List<LinhaVendaDTO> buscarLinhasDasVendasAtivas(@Param("vendaIds") Collection<Long> vendaIds);
 }
@@ -0,0 +1,22 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.dto.FaturamentoPorProdutoDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface ItemVendaRepositoryCustom {
+
+    // Partição das curvas ABC: categoria do produto ou vendedor da venda
+    enum Agrupamento { CATEGORIA, USUARIO }
+
+    // Faturamento por produto em um recorte das vendas, do maior para o menor; filtros nulos ficam fora do SQL
+    List<FaturamentoPorProdutoDTO> somarFaturamentoPorProduto(LocalDateTime de, LocalDateTime ate,
+                                                               Long categoriaId, Long usuarioId);
+
+    // O mesmo recorte agrupado por (partição, produto) em uma consulta só; cada lista vem do maior para o menor
+    Map<Long, List<FaturamentoPorProdutoDTO>> somarFaturamentoPorParticaoEProduto(Agrupamento agrupamento,
+                                                                                LocalDateTime de, LocalDateTime ate,
+                                                                                Long categoriaId, Long usuarioId);
+}
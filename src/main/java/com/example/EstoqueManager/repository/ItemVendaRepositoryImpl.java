@@ -0,0 +1,94 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.dto.FaturamentoPorProdutoDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class ItemVendaRepositoryImpl implements ItemVendaRepositoryCustom {
+
+    // Parte de venda_table para o período virar uma faixa nos índices (data, id) / (usuario_id, data, id)
+    private static final String SQL_FROM = " FROM venda_table v " +
+            "JOIN item_venda_table i ON i.venda_id = v.id " +
+            "JOIN produto_table p ON p.id = i.produto_id";
+
+    private static final String SQL_VALOR = "SUM(i.quantidade_vendida * COALESCE(i.preco_vendido, p.preco))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record Faturamento(Long produtoId, String nome, Double valorTotal) implements FaturamentoPorProdutoDTO {
+
+        @Override
+        public Long getProdutoId() {
+            return produtoId;
+        }
+
+        @Override
+        public String getNome() {
+            return nome;
+        }
+
+        @Override
+        public Double getValorTotal() {
+            return valorTotal;
+        }
+    }
+
+    @Override
+    public List<FaturamentoPorProdutoDTO> somarFaturamentoPorProduto(LocalDateTime de, LocalDateTime ate,
+                                                                      Long categoriaId, Long usuarioId) {
+        List<Object> parametros = new ArrayList<>();
+        String sql = "SELECT p.id, p.nome, " + SQL_VALOR + " AS valor_total" + SQL_FROM
+                + filtros(de, ate, categoriaId, usuarioId, parametros)
+                + " GROUP BY p.id, p.nome ORDER BY valor_total DESC";
+
+        return jdbcTemplate.query(sql, (rs, linha) -> (FaturamentoPorProdutoDTO) new Faturamento(
+                rs.getLong(1), rs.getString(2), rs.getDouble(3)), parametros.toArray());
+    }
+
+    @Override
+    public Map<Long, List<FaturamentoPorProdutoDTO>> somarFaturamentoPorParticaoEProduto(
+            Agrupamento agrupamento, LocalDateTime de, LocalDateTime ate, Long categoriaId, Long usuarioId) {
+        String particao = agrupamento == Agrupamento.CATEGORIA ? "p.pcategoria_id" : "v.usuario_id";
+
+        List<Object> parametros = new ArrayList<>();
+        String sql = "SELECT " + particao + ", p.id, p.nome, " + SQL_VALOR + " AS valor_total" + SQL_FROM
+                + filtros(de, ate, categoriaId, usuarioId, parametros)
+                + " GROUP BY " + particao + ", p.id, p.nome ORDER BY " + particao + ", valor_total DESC";
+
+        Map<Long, List<FaturamentoPorProdutoDTO>> porParticao = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            porParticao.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>())
+                    .add(new Faturamento(rs.getLong(2), rs.getString(3), rs.getDouble(4)));
+        }, parametros.toArray());
+        return porParticao;
+    }
+
+    // Só os filtros informados entram no WHERE, sem "(? IS NULL OR ...)", para o otimizador escolher o índice
+    // pelo filtro de fato usado
+    private String filtros(LocalDateTime de, LocalDateTime ate, Long categoriaId, Long usuarioId,
+                           List<Object> parametros) {
+        List<String> condicoes = new ArrayList<>();
+        if (de != null) {
+            condicoes.add("v.data >= ?");
+            parametros.add(de);
+        }
+        if (ate != null) {
+            condicoes.add("v.data <= ?");
+            parametros.add(ate);
+        }
+        if (categoriaId != null) {
+            condicoes.add("p.pcategoria_id = ?");
+            parametros.add(categoriaId);
+        }
+        if (usuarioId != null) {
+            condicoes.add("v.usuario_id = ?");
+            parametros.add(usuarioId);
+        }
+
+        return condicoes.isEmpty() ? "" : " WHERE " + String.join(" AND ", condicoes);
+    }
+}
@@ -3,11 +3,16 @@ package com.example.EstoqueManager.repository;
 import java.util.Optional;
 
 import com.example.EstoqueManager.model.UsuarioModel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 
 public interface LoginRepository extends JpaRepository<UsuarioModel, Long>{
 
+	// Executada a cada requisição autenticada (filtro JWT): resultado no cache de consultas do Hibernate
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	public Optional<UsuarioModel> findByLogin(String login);
 	
 }
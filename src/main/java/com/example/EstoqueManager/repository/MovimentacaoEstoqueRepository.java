@@ -0,0 +1,43 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.dto.QuantidadePorProdutoDTO;
+import com.example.EstoqueManager.model.MovimentacaoEstoqueModel;
+import com.example.EstoqueManager.model.ProdutoModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MovimentacaoEstoqueRepository extends JpaRepository<MovimentacaoEstoqueModel, Long> {
+
+    @Query("SELECT COALESCE(SUM(m.quantidade), 0) FROM MovimentacaoEstoqueModel m " +
+            "WHERE m.produtoId = :produtoId AND m.data <= :ate")
+    Long somarAte(@Param("produtoId") Long produtoId, @Param("ate") LocalDateTime ate);
+
+    // Movimentações confirmadas depois do snapshot da época informada, até a data
+    @Query("SELECT COALESCE(SUM(m.quantidade), 0) FROM MovimentacaoEstoqueModel m " +
+            "WHERE m.produtoId = :produtoId AND m.epoca > :epoca AND m.data <= :ate")
+    Long somarDepoisDaEpoca(@Param("produtoId") Long produtoId,
+                            @Param("epoca") Long epoca, @Param("ate") LocalDateTime ate);
+
+    @Query("SELECT m.produtoId AS produtoId, SUM(m.quantidade) AS quantidade FROM MovimentacaoEstoqueModel m " +
+            "WHERE m.epoca <= :ate GROUP BY m.produtoId")
+    List<QuantidadePorProdutoDTO> somarPorProdutoAteEpoca(@Param("ate") Long ate);
+
+    @Query("SELECT m.produtoId AS produtoId, SUM(m.quantidade) AS quantidade FROM MovimentacaoEstoqueModel m " +
+            "WHERE m.epoca > :de AND m.epoca <= :ate GROUP BY m.produtoId")
+    List<QuantidadePorProdutoDTO> somarPorProdutoEntreEpocas(@Param("de") Long de, @Param("ate") Long ate);
+
+    @Query("SELECT MAX(m.epoca) FROM MovimentacaoEstoqueModel m")
+    Optional<Long> buscarUltimaEpoca();
+
+    // Produtos com estoque anterior ao livro, que ainda precisam da movimentação de saldo inicial
+    @Query("SELECT p FROM ProdutoModel p WHERE NOT EXISTS " +
+            "(SELECT 1 FROM MovimentacaoEstoqueModel m WHERE m.produtoId = p.id)")
+    List<ProdutoModel> buscarProdutosSemMovimentacao();
+}
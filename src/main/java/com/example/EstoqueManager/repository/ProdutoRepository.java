@@ -1,9 +1,46 @@
 package com.example.EstoqueManager.repository;
 
+import com.example.EstoqueManager.dto.ProdutoBuscaDTO;
 import com.example.EstoqueManager.model.ProdutoModel;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ProdutoRepository extends JpaRepository<ProdutoModel, Long> {
+public interface ProdutoRepository extends JpaRepository<ProdutoModel, Long>, ProdutoRepositoryCustom {
+
+    @Query("SELECT p.quantidade FROM ProdutoModel p WHERE p.id = :id")
+    Optional<Integer> buscarQuantidade(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.quantidade FROM ProdutoModel p WHERE p.id = :id")
+    Integer travarQuantidade(@Param("id") Long id);
+
+    // Só as colunas da desativação: um save() da entidade regravaria a quantidade lida antes, desfazendo
+    // baixas de estoque confirmadas nesse meio-tempo
+    @Modifying
+    @Query("UPDATE ProdutoModel p SET p.ativo = false, p.dataUltimaAlteracao = :data WHERE p.id = :id")
+    int desativar(@Param("id") Long id, @Param("data") LocalDateTime data);
+
+    List<ProdutoModel> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    List<ProdutoModel> findByCategoriaIdAndIdGreaterThanOrderByIdAsc(Long categoriaId, Long id, Limit limite);
+
+    // Colunas usadas pelo índice de busca por nome (ver BuscaProdutoService)
+    @Query("SELECT new com.example.EstoqueManager.dto.ProdutoBuscaDTO(p.id, p.nome, p.preco, p.ativo, c.id, c.nome) " +
+            "FROM ProdutoModel p JOIN p.categoria c")
+    List<ProdutoBuscaDTO> buscarParaIndice();
+
+    @Query("SELECT new com.example.EstoqueManager.dto.ProdutoBuscaDTO(p.id, p.nome, p.preco, p.ativo, c.id, c.nome) " +
+            "FROM ProdutoModel p JOIN p.categoria c WHERE p.id = :id")
+    Optional<ProdutoBuscaDTO> buscarParaIndice(@Param("id") Long id);
 }
@@ -0,0 +1,21 @@
+package com.example.EstoqueManager.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProdutoRepositoryCustom {
+
+    // Baixa o estoque com um UPDATE condicional por produto (quantidade >= solicitado + reservado por outros).
+    // Retorna os IDs dos produtos que não tinham estoque suficiente.
+    List<Long> baixarEstoque(Map<Long, Integer> quantidadesPorProduto, Map<Long, Integer> reservadosPorProduto);
+
+    // Devolve ao estoque as quantidades informadas
+    void devolverEstoque(Map<Long, Integer> quantidadesPorProduto);
+
+    // Quantidade em estoque dos produtos informados, em uma consulta; IDs inexistentes ficam fora do mapa
+    Map<Long, Integer> buscarQuantidades(Collection<Long> produtoIds);
+
+    // Soma ao estoque o delta informado por produto (negativo para baixa), sem checagem, em um único UPDATE
+    void ajustarEstoque(Map<Long, Integer> deltasPorProduto);
+}
@@ -0,0 +1,99 @@
+package com.example.EstoqueManager.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class ProdutoRepositoryImpl implements ProdutoRepositoryCustom {
+
+    private static final String SQL_BAIXAR_ESTOQUE =
+            "UPDATE produto_table SET quantidade = quantidade - ? WHERE id = ? AND quantidade >= ?";
+
+    private static final int PRODUTOS_POR_UPDATE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> baixarEstoque(Map<Long, Integer> quantidadesPorProduto, Map<Long, Integer> reservadosPorProduto) {
+        List<Map.Entry<Long, Integer>> linhas = ordenarPorProduto(quantidadesPorProduto);
+
+        int[] atualizados = jdbcTemplate.batchUpdate(SQL_BAIXAR_ESTOQUE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> linha = linhas.get(i);
+                ps.setInt(1, linha.getValue());
+                ps.setLong(2, linha.getKey());
+                // O que está reservado em carrinhos de outros clientes não pode ser vendido
+                ps.setInt(3, linha.getValue() + reservadosPorProduto.getOrDefault(linha.getKey(), 0));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return linhas.size();
+            }
+        });
+
+        // Linhas que não foram atualizadas não passaram na condição de estoque
+        List<Long> falhas = new ArrayList<>();
+        for (int i = 0; i < atualizados.length; i++) {
+            if (atualizados[i] == 0) {
+                falhas.add(linhas.get(i).getKey());
+            }
+        }
+        return falhas;
+    }
+
+    @Override
+    public void devolverEstoque(Map<Long, Integer> quantidadesPorProduto) {
+        ajustarEstoque(quantidadesPorProduto);
+    }
+
+    @Override
+    public Map<Long, Integer> buscarQuantidades(Collection<Long> produtoIds) {
+        Map<Long, Integer> quantidades = new HashMap<>();
+        if (produtoIds.isEmpty()) {
+            return quantidades;
+        }
+
+        String sql = "SELECT id, quantidade FROM produto_table WHERE id IN ("
+                + String.join(", ", Collections.nCopies(produtoIds.size(), "?")) + ")";
+        jdbcTemplate.query(sql, rs -> {
+            quantidades.put(rs.getLong(1), rs.getInt(2));
+        }, produtoIds.toArray());
+        return quantidades;
+    }
+
+    // Um único UPDATE ... CASE id para todos os produtos (em fatias, para não gerar SQL gigante)
+    @Override
+    public void ajustarEstoque(Map<Long, Integer> deltasPorProduto) {
+        List<Map.Entry<Long, Integer>> linhas = ordenarPorProduto(deltasPorProduto);
+
+        for (int inicio = 0; inicio < linhas.size(); inicio += PRODUTOS_POR_UPDATE) {
+            List<Map.Entry<Long, Integer>> fatia = linhas.subList(inicio, Math.min(inicio + PRODUTOS_POR_UPDATE, linhas.size()));
+
+            StringBuilder sql = new StringBuilder("UPDATE produto_table SET quantidade = quantidade + CASE id");
+            List<Object> parametros = new ArrayList<>(fatia.size() * 3);
+            for (Map.Entry<Long, Integer> linha : fatia) {
+                sql.append(" WHEN ? THEN ?");
+                parametros.add(linha.getKey());
+                parametros.add(linha.getValue());
+            }
+            sql.append(" ELSE 0 END WHERE id IN (")
+                    .append(String.join(", ", Collections.nCopies(fatia.size(), "?")))
+                    .append(")");
+            fatia.forEach(linha -> parametros.add(linha.getKey()));
+
+            jdbcTemplate.update(sql.toString(), parametros.toArray());
+        }
+    }
+
+    // Ordena por ID para que transações concorrentes travem as linhas sempre na mesma ordem (evita deadlock)
+    private List<Map.Entry<Long, Integer>> ordenarPorProduto(Map<Long, Integer> quantidadesPorProduto) {
+        return new ArrayList<>(new TreeMap<>(quantidadesPorProduto).entrySet());
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.dto.ResumoVendaDTO;
+import com.example.EstoqueManager.dto.ResumoVendaPeriodoDTO;
+import com.example.EstoqueManager.model.DimensaoResumo;
+import com.example.EstoqueManager.model.GranularidadeResumo;
+import com.example.EstoqueManager.model.ResumoVendaModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ResumoVendaRepository extends JpaRepository<ResumoVendaModel, Long>, ResumoVendaRepositoryCustom {
+
+    // Totais do período por chave: linhas de hora nas pontas e de dia no meio ([inicioDias, fimDias)).
+    // Sem dia inteiro no período, inicioDias = fimDias = ate e só as linhas de hora entram.
+    @Query("SELECT r.chave AS chave, SUM(r.valorTotal) AS valorTotal, SUM(r.quantidade) AS quantidade, " +
+            "SUM(r.vendas) AS vendas FROM ResumoVendaModel r " +
+            "WHERE r.dimensao = :dimensao AND (" +
+            "(r.granularidade = com.example.EstoqueManager.model.GranularidadeResumo.HORA " +
+            "AND ((r.inicio >= :de AND r.inicio < :inicioDias) OR (r.inicio >= :fimDias AND r.inicio < :ate))) " +
+            "OR (r.granularidade = com.example.EstoqueManager.model.GranularidadeResumo.DIA " +
+            "AND r.inicio >= :inicioDias AND r.inicio < :fimDias)) " +
+            "GROUP BY r.chave HAVING SUM(r.vendas) > 0 ORDER BY SUM(r.valorTotal) DESC")
+    List<ResumoVendaDTO> somarPorChave(@Param("dimensao") DimensaoResumo dimensao,
+                                       @Param("de") LocalDateTime de,
+                                       @Param("inicioDias") LocalDateTime inicioDias,
+                                       @Param("fimDias") LocalDateTime fimDias,
+                                       @Param("ate") LocalDateTime ate);
+
+    @Query("SELECT r.inicio AS inicio, r.chave AS chave, r.valorTotal AS valorTotal, r.quantidade AS quantidade, " +
+            "r.vendas AS vendas FROM ResumoVendaModel r " +
+            "WHERE r.dimensao = :dimensao AND r.granularidade = :granularidade " +
+            "AND r.inicio >= :de AND r.inicio < :ate AND r.vendas > 0 " +
+            "ORDER BY r.inicio, r.valorTotal DESC")
+    List<ResumoVendaPeriodoDTO> buscarPorPeriodo(@Param("dimensao") DimensaoResumo dimensao,
+                                                 @Param("granularidade") GranularidadeResumo granularidade,
+                                                 @Param("de") LocalDateTime de,
+                                                 @Param("ate") LocalDateTime ate);
+
+    // Dias com resumo montado: todo dia com venda ativa tem a linha TOTAL do dia com vendas > 0
+    @Query("SELECT r.inicio FROM ResumoVendaModel r " +
+            "WHERE r.dimensao = com.example.EstoqueManager.model.DimensaoResumo.TOTAL " +
+            "AND r.granularidade = com.example.EstoqueManager.model.GranularidadeResumo.DIA AND r.vendas > 0")
+    List<LocalDateTime> buscarDiasResumidos();
+
+    // Todos os recortes e granularidades entram no filtro para o DELETE usar a chave única como faixas
+    @Modifying
+    @Query("DELETE FROM ResumoVendaModel r WHERE r.dimensao IN :dimensoes AND r.granularidade IN :granularidades " +
+            "AND r.inicio >= :de AND r.inicio < :ate")
+    int apagarEntre(@Param("dimensoes") Collection<DimensaoResumo> dimensoes,
+                    @Param("granularidades") Collection<GranularidadeResumo> granularidades,
+                    @Param("de") LocalDateTime de,
+                    @Param("ate") LocalDateTime ate);
+}
@@ -0,0 +1,11 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.model.ResumoVendaModel;
+
+import java.util.Collection;
+
+public interface ResumoVendaRepositoryCustom {
+
+    // Soma os deltas (valor, unidades e vendas) às linhas, criando as que ainda não existem
+    void acumular(Collection<ResumoVendaModel> deltas);
+}
@@ -0,0 +1,51 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.model.ResumoVendaModel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class ResumoVendaRepositoryImpl implements ResumoVendaRepositoryCustom {
+
+    // Upsert do MySQL: duas vendas abrindo a mesma hora ao mesmo tempo não disputam o INSERT da linha
+    private static final String SQL_ACUMULAR = "INSERT INTO resumo_venda_table " +
+            "(dimensao, granularidade, inicio, chave, valor_total, quantidade, vendas) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE valor_total = valor_total + VALUES(valor_total), " +
+            "quantidade = quantidade + VALUES(quantidade), vendas = vendas + VALUES(vendas)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void acumular(Collection<ResumoVendaModel> deltas) {
+        // Ordem fixa das linhas, para as transações travarem na mesma sequência
+        List<ResumoVendaModel> linhas = new ArrayList<>(deltas);
+        linhas.sort(Comparator.comparing(ResumoVendaModel::getDimensao)
+                .thenComparing(ResumoVendaModel::getGranularidade)
+                .thenComparing(ResumoVendaModel::getInicio)
+                .thenComparing(ResumoVendaModel::getChave));
+
+        jdbcTemplate.batchUpdate(SQL_ACUMULAR, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ResumoVendaModel linha = linhas.get(i);
+                ps.setString(1, linha.getDimensao().name());
+                ps.setString(2, linha.getGranularidade().name());
+                ps.setObject(3, linha.getInicio());
+                ps.setString(4, linha.getChave());
+                ps.setDouble(5, linha.getValorTotal());
+                ps.setLong(6, linha.getQuantidade());
+                ps.setLong(7, linha.getVendas());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return linhas.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.EstoqueManager.repository;
+
+import com.example.EstoqueManager.model.SnapshotEstoqueModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SnapshotEstoqueRepository extends JpaRepository<SnapshotEstoqueModel, Long> {
+
+    Optional<SnapshotEstoqueModel> findFirstByProdutoIdAndDataLessThanEqualOrderByDataDesc(
+            Long produtoId, LocalDateTime data);
+
+    @Query("SELECT MAX(s.epoca) FROM SnapshotEstoqueModel s")
+    Optional<Long> buscarUltimaEpoca();
+
+    @Query("SELECT s FROM SnapshotEstoqueModel s WHERE s.produtoId IN :produtoIds AND s.epoca = " +
+            "(SELECT MAX(s2.epoca) FROM SnapshotEstoqueModel s2 WHERE s2.produtoId = s.produtoId)")
+    List<SnapshotEstoqueModel> buscarUltimosPorProdutos(@Param("produtoIds") Collection<Long> produtoIds);
+}
@@ -1,14 +1,30 @@
 package com.example.EstoqueManager.repository;
 
+import com.example.EstoqueManager.dto.UsuarioResumoDTO;
+import com.example.EstoqueManager.model.Cargo;
 import com.example.EstoqueManager.model.UsuarioModel;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<UsuarioModel, Long> {
     UsuarioModel findByLoginAndSenha(String login, String senha);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     UsuarioModel findByLogin(String login);
+
+    List<UsuarioResumoDTO> findAllProjectedByOrderByIdAsc();
+
+    Optional<UsuarioResumoDTO> findProjectedById(Long id);
+
+    List<UsuarioResumoDTO> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    boolean existsByCargo(Cargo cargo);
 }
@@ -1,11 +1,71 @@
 package com.example.EstoqueManager.repository;
 
 import com.example.EstoqueManager.model.VendaModel;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface VendaRepository extends JpaRepository<VendaModel, Long> {
 
+    // Trava as vendas ativas para que dois cancelamentos simultâneos não devolvam o estoque duas vezes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v.id FROM VendaModel v WHERE v.id IN :ids AND v.ativo = true ORDER BY v.id")
+    List<Long> travarIdsAtivos(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT v.id FROM VendaModel v WHERE v.comprador.id = :compradorId")
+    List<Long> buscarIdsDoComprador(@Param("compradorId") Long compradorId);
+
+    // Dias com pelo menos uma venda ativa (recuperação dos resumos de venda)
+    @Query("SELECT DISTINCT CAST(v.data AS LocalDate) FROM VendaModel v WHERE v.ativo = true")
+    List<LocalDate> buscarDiasComVendaAtiva();
+
+    @Modifying
+    @Query("UPDATE VendaModel v SET v.ativo = false, v.itensDevolvidos = :itensDevolvidos WHERE v.id IN :ids")
+    int cancelarPorIds(@Param("ids") Collection<Long> ids, @Param("itensDevolvidos") boolean itensDevolvidos);
+
+    @EntityGraph("VendaModel.detalhe")
+    @Query("SELECT v FROM VendaModel v WHERE v.id = :id")
+    Optional<VendaModel> buscarDetalhePorId(@Param("id") Long id);
+
+    // Paginação por cursor, mais recentes primeiro; usa o índice (data, id).
+    // As páginas não fazem JOIN FETCH dos itens (o LIMIT seria aplicado em memória): os itens das
+    // vendas da página vêm em lote pelo hibernate.default_batch_fetch_size.
+    @Query("SELECT v FROM VendaModel v ORDER BY v.data DESC, v.id DESC")
+    List<VendaModel> buscarPrimeiraPagina(Limit limite);
+
+    @Query("SELECT v FROM VendaModel v WHERE v.data < :data OR (v.data = :data AND v.id < :id) " +
+            "ORDER BY v.data DESC, v.id DESC")
+    List<VendaModel> buscarPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id, Limit limite);
+
+    List<VendaModel> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    // Sub-recursos /user/{id}/vendas e /comprador/{id}/vendas, com o mesmo cursor (data, id)
+    @Query("SELECT v FROM VendaModel v WHERE v.usuario.id = :usuarioId ORDER BY v.data DESC, v.id DESC")
+    List<VendaModel> buscarPrimeiraPaginaDoUsuario(@Param("usuarioId") Long usuarioId, Limit limite);
+
+    @Query("SELECT v FROM VendaModel v WHERE v.usuario.id = :usuarioId " +
+            "AND (v.data < :data OR (v.data = :data AND v.id < :id)) ORDER BY v.data DESC, v.id DESC")
+    List<VendaModel> buscarPaginaDoUsuarioApos(@Param("usuarioId") Long usuarioId,
+                                               @Param("data") LocalDateTime data, @Param("id") Long id, Limit limite);
+
+    @Query("SELECT v FROM VendaModel v WHERE v.comprador.id = :compradorId ORDER BY v.data DESC, v.id DESC")
+    List<VendaModel> buscarPrimeiraPaginaDoComprador(@Param("compradorId") Long compradorId, Limit limite);
 
+    @Query("SELECT v FROM VendaModel v WHERE v.comprador.id = :compradorId " +
+            "AND (v.data < :data OR (v.data = :data AND v.id < :id)) ORDER BY v.data DESC, v.id DESC")
+    List<VendaModel> buscarPaginaDoCompradorApos(@Param("compradorId") Long compradorId,
+                                                 @Param("data") LocalDateTime data, @Param("id") Long id, Limit limite);
 }
@@ -0,0 +1,576 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.AnaliseVendaDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.model.ItemVendaModel;
+import com.example.EstoqueManager.model.MetodoPagamento;
+import com.example.EstoqueManager.model.VendaModel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Cópia em memória dos itens de venda em colunas de tipos primitivos (uma posição por item), para análises
+// ad hoc sem ir ao banco: cada consulta é um laço sobre os arrays, sem objetos por linha e sem entidades.
+// Carregada na subida com um cursor JDBC (sem bloquear as consultas) e atualizada depois do commit de cada
+// venda, alteração ou cancelamento. Opcional (venda.analise.enabled) e vale para uma única instância da aplicação.
+@Service
+@RequiredArgsConstructor
+public class AnaliseVendasService {
+
+    private static final String SQL_CARGA =
+            "SELECT v.id, v.data, v.ativo, v.metodo_pagamento, v.usuario_id, i.produto_id, i.quantidade_vendida, " +
+            "COALESCE(i.preco_vendido, p.preco) AS preco " +
+            "FROM venda_table v JOIN item_venda_table i ON i.venda_id = v.id " +
+            "JOIN produto_table p ON p.id = i.produto_id ORDER BY v.id";
+
+    // Situação de cada posição; as removidas (itens trocados, vendas excluídas) ficam até a próxima compactação
+    private static final byte REMOVIDA = 0;
+    private static final byte CANCELADA = 1;
+    private static final byte ATIVA = 2;
+
+    private static final MetodoPagamento[] METODOS = MetodoPagamento.values();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${venda.analise.enabled:false}")
+    private boolean habilitado;
+
+    // Carga em streaming, como na exportação de vendas
+    @Value("${venda.analise.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Trocado inteiro no fim da carga; protegido pelo lock
+    private Colunas colunas = new Colunas();
+
+    // Alterações confirmadas durante a carga, aplicadas na ordem sobre as colunas novas antes da troca.
+    // null fora da carga; protegido pelo lock
+    private List<Consumer<Colunas>> pendentesDaCarga;
+
+    private volatile boolean carregado;
+
+    private enum Agrupamento { NENHUM, PRODUTO, USUARIO, METODO_PAGAMENTO, HORA, DIA }
+
+    public record Filtro(LocalDateTime de, LocalDateTime ate, Long produtoId, Long usuarioId,
+                         String metodoPagamento, boolean incluirCanceladas) { }
+
+    // Estado de um item no momento do registro, copiado antes de a transação terminar
+    private record Linha(long produtoId, int quantidade, long precoCentavos) { }
+
+    // A carga monta colunas novas sem o lock (as consultas seguem nas antigas) e só as troca no fim.
+    // As alterações confirmadas a partir do início da carga ficam na fila e são reaplicadas sobre as colunas
+    // novas: as que já estavam no SELECT são idempotentes (regravar, cancelar, excluir a mesma venda).
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (!habilitado) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendentesDaCarga = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Colunas novas = new Colunas();
+        try {
+            jdbcTemplate.query(conexao -> {
+                PreparedStatement ps = conexao.prepareStatement(SQL_CARGA,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                long vendaId = rs.getLong("id");
+                novas.inicioPorVenda.colocarSeAusente(vendaId, novas.tamanho);
+                novas.adicionar(vendaId, rs.getObject("data", LocalDateTime.class), rs.getBoolean("ativo"),
+                        MetodoPagamento.valueOf(rs.getString("metodo_pagamento")), rs.getLong("usuario_id"),
+                        rs.getLong("produto_id"), rs.getInt("quantidade_vendida"), centavos(rs.getDouble("preco")));
+            });
+        } catch (RuntimeException e) {
+            // As alterações da fila já estão nas colunas atuais, que continuam valendo
+            lock.writeLock().lock();
+            try {
+                pendentesDaCarga = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendentesDaCarga.forEach(acao -> aplicar(novas, acao));
+            pendentesDaCarga = null;
+            colunas = novas;
+            carregado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Venda criada ou alterada: depois do commit, os itens dela passam a ser os informados agora
+    public void vendaGravada(VendaModel venda) {
+        if (!habilitado) {
+            return;
+        }
+
+        long vendaId = venda.getId();
+        LocalDateTime data = venda.getData();
+        boolean ativa = venda.isAtivo();
+        MetodoPagamento metodo = venda.getMetodoPagamento();
+        long usuarioId = venda.getUsuario().getId();
+        List<Linha> linhas = new ArrayList<>(venda.getItens().size());
+        for (ItemVendaModel item : venda.getItens()) {
+            // Item sem precoVendido vale pelo preço do produto, como no COALESCE da carga
+            double preco = item.getPrecoVendido() != null ? item.getPrecoVendido() : item.getProduto().getPreco();
+            linhas.add(new Linha(item.getProduto().getId(), item.getQuantidadeVendida(), centavos(preco)));
+        }
+
+        aposCommit(destino -> {
+            destino.marcar(vendaId, REMOVIDA);
+            destino.inicioPorVenda.colocar(vendaId, destino.tamanho);
+            for (Linha linha : linhas) {
+                destino.adicionar(vendaId, data, ativa, metodo, usuarioId, linha.produtoId(), linha.quantidade(),
+                        linha.precoCentavos());
+            }
+        });
+    }
+
+    // Vendas canceladas direto no banco (cancelamento em lote)
+    public void vendasCanceladas(Collection<Long> ids) {
+        if (!habilitado || ids.isEmpty()) {
+            return;
+        }
+
+        List<Long> vendas = List.copyOf(ids);
+        aposCommit(destino -> vendas.forEach(vendaId -> destino.marcar(vendaId, CANCELADA)));
+    }
+
+    public void vendasExcluidas(Collection<Long> ids) {
+        if (!habilitado || ids.isEmpty()) {
+            return;
+        }
+
+        List<Long> vendas = List.copyOf(ids);
+        aposCommit(destino -> vendas.forEach(vendaId -> {
+            destino.marcar(vendaId, REMOVIDA);
+            destino.inicioPorVenda.remover(vendaId);
+        }));
+    }
+
+    // Soma unidades, valor e itens dos que passam no filtro, agrupados; [de, ate), filtros nulos são ignorados
+    public List<AnaliseVendaDTO> consultar(Filtro filtro, String agrupar) {
+        if (!habilitado) {
+            throw new BusinessException("Análise em memória desabilitada (venda.analise.enabled).");
+        }
+
+        if (!carregado) {
+            throw new BusinessException("Análise em memória ainda está sendo carregada.");
+        }
+
+        if (filtro.de() != null && filtro.ate() != null && !filtro.de().isBefore(filtro.ate())) {
+            throw new BusinessException("Data inicial deve ser anterior à data final.");
+        }
+
+        Agrupamento agrupamento = enumValida(Agrupamento.class, agrupar, "Agrupamento inválido");
+        MetodoPagamento metodoPagamento = filtro.metodoPagamento() == null ? null
+                : enumValida(MetodoPagamento.class, filtro.metodoPagamento(), "Método de pagamento inválido");
+
+        long de = filtro.de() != null ? instante(filtro.de()) : Long.MIN_VALUE;
+        long ate = filtro.ate() != null ? instante(filtro.ate()) : Long.MAX_VALUE;
+        boolean porProduto = filtro.produtoId() != null;
+        long produtoId = porProduto ? filtro.produtoId() : 0;
+        boolean porUsuario = filtro.usuarioId() != null;
+        long usuarioId = porUsuario ? filtro.usuarioId() : 0;
+        int metodo = metodoPagamento != null ? metodoPagamento.ordinal() : -1;
+        byte situacaoMinima = filtro.incluirCanceladas() ? CANCELADA : ATIVA;
+
+        // Hora e dia saem do instante em segundos dividido pelo tamanho do período
+        long divisor = agrupamento == Agrupamento.HORA ? 3600 : agrupamento == Agrupamento.DIA ? 86400 : 1;
+
+        Grupos grupos = new Grupos();
+
+        lock.readLock().lock();
+        try {
+            // Os arrays só são lidos com o lock: o crescimento, a compactação e a carga trocam as referências
+            Colunas atuais = colunas;
+            long[] colunaChave = switch (agrupamento) {
+                case PRODUTO -> atuais.produtoIds;
+                case USUARIO -> atuais.usuarioIds;
+                case HORA, DIA -> atuais.instantes;
+                case NENHUM, METODO_PAGAMENTO -> null;
+            };
+            long[] produtos = atuais.produtoIds;
+            long[] usuarios = atuais.usuarioIds;
+            long[] tempos = atuais.instantes;
+            int[] qtds = atuais.quantidades;
+            long[] precos = atuais.precosCentavos;
+            byte[] metodosPagamento = atuais.metodos;
+            byte[] situacao = atuais.situacoes;
+            int n = atuais.tamanho;
+
+            for (int i = 0; i < n; i++) {
+                if (situacao[i] < situacaoMinima
+                        || tempos[i] < de || tempos[i] >= ate
+                        || (porProduto && produtos[i] != produtoId)
+                        || (porUsuario && usuarios[i] != usuarioId)
+                        || (metodo >= 0 && metodosPagamento[i] != metodo)) {
+                    continue;
+                }
+
+                long chave = colunaChave != null ? colunaChave[i] / divisor
+                        : agrupamento == Agrupamento.METODO_PAGAMENTO ? metodosPagamento[i] : 0;
+                grupos.somar(chave, qtds[i], qtds[i] * precos[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return grupos.resultado(agrupamento, divisor);
+    }
+
+    private void aposCommit(Consumer<Colunas> acao) {
+        Runnable registrar = () -> {
+            lock.writeLock().lock();
+            try {
+                // Durante a carga vale também para as colunas atuais, que seguem atendendo as consultas
+                if (pendentesDaCarga != null) {
+                    pendentesDaCarga.add(acao);
+                }
+                aplicar(colunas, acao);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registrar.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registrar.run();
+            }
+        });
+    }
+
+    // Chamado com o lock de escrita
+    private static void aplicar(Colunas destino, Consumer<Colunas> acao) {
+        acao.accept(destino);
+        destino.compactarSeNecessario();
+    }
+
+    private static <E extends Enum<E>> E enumValida(Class<E> tipo, String valor, String mensagem) {
+        try {
+            return Enum.valueOf(tipo, valor.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(mensagem + ". Use: " + Arrays.toString(tipo.getEnumConstants()) + ".");
+        }
+    }
+
+    // As datas das vendas são locais (LocalDateTime); o UTC aqui é só a base da contagem de segundos
+    private static long instante(LocalDateTime data) {
+        return data.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long centavos(double valor) {
+        return Math.round(valor * 100);
+    }
+
+    // Itens em colunas de tipos primitivos, uma posição por item; os itens de uma venda ficam sempre em
+    // posições seguidas. Só é alterada com o lock de escrita (ou antes de ser publicada, na carga).
+    private static final class Colunas {
+
+        private long[] vendaIds = new long[0];
+        private long[] produtoIds = new long[0];
+        private long[] usuarioIds = new long[0];
+        private long[] instantes = new long[0];
+        private int[] quantidades = new int[0];
+        private long[] precosCentavos = new long[0];
+        private byte[] metodos = new byte[0];
+        private byte[] situacoes = new byte[0];
+        private int tamanho;
+        private int removidas;
+
+        // Primeira posição dos itens de cada venda
+        private final InicioPorVenda inicioPorVenda = new InicioPorVenda();
+
+        void marcar(long vendaId, byte situacao) {
+            int inicio = inicioPorVenda.buscar(vendaId);
+            if (inicio < 0) {
+                return;
+            }
+
+            for (int i = inicio; i < tamanho && vendaIds[i] == vendaId && situacoes[i] != REMOVIDA; i++) {
+                if (situacao == REMOVIDA) {
+                    removidas++;
+                }
+                situacoes[i] = situacao;
+            }
+        }
+
+        void adicionar(long vendaId, LocalDateTime data, boolean ativa, MetodoPagamento metodo, long usuarioId,
+                       long produtoId, int quantidade, long precoCentavos) {
+            if (tamanho == vendaIds.length) {
+                redimensionar(Math.max(1024, tamanho * 2));
+            }
+
+            vendaIds[tamanho] = vendaId;
+            produtoIds[tamanho] = produtoId;
+            usuarioIds[tamanho] = usuarioId;
+            instantes[tamanho] = instante(data);
+            quantidades[tamanho] = quantidade;
+            precosCentavos[tamanho] = precoCentavos;
+            metodos[tamanho] = (byte) metodo.ordinal();
+            situacoes[tamanho] = ativa ? ATIVA : CANCELADA;
+            tamanho++;
+        }
+
+        private void redimensionar(int capacidade) {
+            vendaIds = Arrays.copyOf(vendaIds, capacidade);
+            produtoIds = Arrays.copyOf(produtoIds, capacidade);
+            usuarioIds = Arrays.copyOf(usuarioIds, capacidade);
+            instantes = Arrays.copyOf(instantes, capacidade);
+            quantidades = Arrays.copyOf(quantidades, capacidade);
+            precosCentavos = Arrays.copyOf(precosCentavos, capacidade);
+            metodos = Arrays.copyOf(metodos, capacidade);
+            situacoes = Arrays.copyOf(situacoes, capacidade);
+        }
+
+        // Quando metade das posições já foi removida, move as restantes para o começo dos arrays (mantendo a
+        // ordem, então os itens de cada venda continuam seguidos)
+        void compactarSeNecessario() {
+            if (removidas == 0 || removidas * 2 < tamanho) {
+                return;
+            }
+
+            int destino = 0;
+            inicioPorVenda.limpar();
+            for (int i = 0; i < tamanho; i++) {
+                if (situacoes[i] == REMOVIDA) {
+                    continue;
+                }
+                vendaIds[destino] = vendaIds[i];
+                produtoIds[destino] = produtoIds[i];
+                usuarioIds[destino] = usuarioIds[i];
+                instantes[destino] = instantes[i];
+                quantidades[destino] = quantidades[i];
+                precosCentavos[destino] = precosCentavos[i];
+                metodos[destino] = metodos[i];
+                situacoes[destino] = situacoes[i];
+                inicioPorVenda.colocarSeAusente(vendaIds[destino], destino);
+                destino++;
+            }
+
+            tamanho = destino;
+            removidas = 0;
+            redimensionar(Math.max(1024, tamanho * 2));
+        }
+    }
+
+    // Mapa long -> int de endereçamento aberto (sondagem linear), sem Long/Integer por venda
+    private static final class InicioPorVenda {
+
+        private long[] chaves = new long[1024];
+        private int[] valores = new int[1024];
+        private boolean[] usados = new boolean[1024];
+        private int quantidade;
+
+        // -1 se a venda não está no mapa
+        int buscar(long vendaId) {
+            int posicao = posicao(vendaId);
+            return usados[posicao] ? valores[posicao] : -1;
+        }
+
+        void colocar(long vendaId, int inicio) {
+            int posicao = posicao(vendaId);
+            if (!usados[posicao]) {
+                if ((quantidade + 1) * 2 > chaves.length) {
+                    crescer();
+                    posicao = posicao(vendaId);
+                }
+                usados[posicao] = true;
+                chaves[posicao] = vendaId;
+                quantidade++;
+            }
+            valores[posicao] = inicio;
+        }
+
+        void colocarSeAusente(long vendaId, int inicio) {
+            if (buscar(vendaId) < 0) {
+                colocar(vendaId, inicio);
+            }
+        }
+
+        // Remoção com deslocamento para trás: as chaves seguintes do mesmo agrupamento voltam para o buraco,
+        // então a busca nunca para antes da chave procurada
+        void remover(long vendaId) {
+            int mascara = chaves.length - 1;
+            int buraco = posicao(vendaId);
+            if (!usados[buraco]) {
+                return;
+            }
+
+            usados[buraco] = false;
+            quantidade--;
+            for (int proxima = (buraco + 1) & mascara; usados[proxima]; proxima = (proxima + 1) & mascara) {
+                int ideal = espalhar(chaves[proxima]) & mascara;
+                boolean podeMover = proxima > buraco
+                        ? ideal <= buraco || ideal > proxima
+                        : ideal <= buraco && ideal > proxima;
+                if (podeMover) {
+                    chaves[buraco] = chaves[proxima];
+                    valores[buraco] = valores[proxima];
+                    usados[buraco] = true;
+                    usados[proxima] = false;
+                    buraco = proxima;
+                }
+            }
+        }
+
+        void limpar() {
+            Arrays.fill(usados, false);
+            quantidade = 0;
+        }
+
+        private int posicao(long chave) {
+            int mascara = chaves.length - 1;
+            int posicao = espalhar(chave) & mascara;
+            while (usados[posicao] && chaves[posicao] != chave) {
+                posicao = (posicao + 1) & mascara;
+            }
+            return posicao;
+        }
+
+        private static int espalhar(long chave) {
+            return Long.hashCode(chave * 0x9E3779B97F4A7C15L);
+        }
+
+        private void crescer() {
+            long[] chavesAntigas = chaves;
+            int[] valoresAntigos = valores;
+            boolean[] usadosAntigos = usados;
+
+            int capacidade = chavesAntigas.length * 2;
+            chaves = new long[capacidade];
+            valores = new int[capacidade];
+            usados = new boolean[capacidade];
+
+            for (int i = 0; i < chavesAntigas.length; i++) {
+                if (usadosAntigos[i]) {
+                    int posicao = posicao(chavesAntigas[i]);
+                    usados[posicao] = true;
+                    chaves[posicao] = chavesAntigas[i];
+                    valores[posicao] = valoresAntigos[i];
+                }
+            }
+        }
+    }
+
+    // Tabela hash de endereçamento aberto com chaves long, para agrupar sem criar um objeto por linha
+    private static final class Grupos {
+
+        private long[] chaves = new long[64];
+        private boolean[] usados = new boolean[64];
+        private long[] unidades = new long[64];
+        private long[] valores = new long[64];
+        private long[] itens = new long[64];
+        private int quantidade;
+
+        void somar(long chave, long unidadesLinha, long valorLinha) {
+            int posicao = posicao(chave);
+            if (!usados[posicao]) {
+                if ((quantidade + 1) * 2 > chaves.length) {
+                    crescer();
+                    posicao = posicao(chave);
+                }
+                usados[posicao] = true;
+                chaves[posicao] = chave;
+                quantidade++;
+            }
+
+            unidades[posicao] += unidadesLinha;
+            valores[posicao] += valorLinha;
+            itens[posicao]++;
+        }
+
+        private int posicao(long chave) {
+            int mascara = chaves.length - 1;
+            int posicao = Long.hashCode(chave * 0x9E3779B97F4A7C15L) & mascara;
+            while (usados[posicao] && chaves[posicao] != chave) {
+                posicao = (posicao + 1) & mascara;
+            }
+            return posicao;
+        }
+
+        private void crescer() {
+            long[] chavesAntigas = chaves;
+            boolean[] usadosAntigos = usados;
+            long[] unidadesAntigas = unidades;
+            long[] valoresAntigos = valores;
+            long[] itensAntigos = itens;
+
+            int capacidade = chavesAntigas.length * 2;
+            chaves = new long[capacidade];
+            usados = new boolean[capacidade];
+            unidades = new long[capacidade];
+            valores = new long[capacidade];
+            itens = new long[capacidade];
+
+            for (int i = 0; i < chavesAntigas.length; i++) {
+                if (usadosAntigos[i]) {
+                    int posicao = posicao(chavesAntigas[i]);
+                    usados[posicao] = true;
+                    chaves[posicao] = chavesAntigas[i];
+                    unidades[posicao] = unidadesAntigas[i];
+                    valores[posicao] = valoresAntigos[i];
+                    itens[posicao] = itensAntigos[i];
+                }
+            }
+        }
+
+        // Grupos de hora e dia em ordem cronológica; os demais do maior para o menor valor
+        List<AnaliseVendaDTO> resultado(Agrupamento agrupamento, long divisor) {
+            List<AnaliseVendaDTO> grupos = new ArrayList<>(quantidade);
+            for (int i = 0; i < chaves.length; i++) {
+                if (usados[i]) {
+                    grupos.add(new AnaliseVendaDTO(chave(agrupamento, chaves[i], divisor), unidades[i],
+                            valores[i] / 100.0, itens[i]));
+                }
+            }
+
+            // A chave de hora/dia é a data ISO, que ordenada como texto fica em ordem cronológica
+            grupos.sort(agrupamento == Agrupamento.HORA || agrupamento == Agrupamento.DIA
+                    ? Comparator.comparing(AnaliseVendaDTO::getChave)
+                    : Comparator.comparingDouble(AnaliseVendaDTO::getValorTotal).reversed());
+            return grupos;
+        }
+
+        private static String chave(Agrupamento agrupamento, long chave, long divisor) {
+            return switch (agrupamento) {
+                case NENHUM -> "";
+                case PRODUTO, USUARIO -> Long.toString(chave);
+                case METODO_PAGAMENTO -> METODOS[(int) chave].name();
+                case HORA, DIA -> LocalDateTime.ofEpochSecond(chave * divisor, 0, ZoneOffset.UTC).toString();
+            };
+        }
+    }
+}
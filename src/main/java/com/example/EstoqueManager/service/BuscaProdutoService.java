@@ -0,0 +1,247 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.ProdutoBuscaDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.repository.ProdutoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Busca de produtos por nome sem ir ao banco: índice invertido de trigramas das palavras do nome,
+// montado na subida da aplicação e atualizado pelas escritas de ProdutoService e CategoriaService.
+// Cada palavra é indexada com dois espaços antes e um depois ("  luva "), então um termo curto ou
+// incompleto casa com o início das palavras e um termo com erro de digitação ainda divide a maior
+// parte dos trigramas com a palavra certa.
+@Service
+@RequiredArgsConstructor
+public class BuscaProdutoService {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private static final int LIMITE_PADRAO = 20;
+    private static final int LIMITE_MAXIMO = 100;
+
+    // Fração mínima dos trigramas do termo que o nome precisa ter para entrar como resultado aproximado
+    private static final double SIMILARIDADE_MINIMA = 0.5;
+
+    private final ProdutoRepository produtoRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    private final Map<String, Set<Long>> produtosPorTrigrama = new HashMap<>();
+
+    private record Entrada(ProdutoBuscaDTO produto, List<String> palavras, Set<String> trigramas) { }
+
+    private record Resultado(Entrada entrada, double pontuacao) { }
+
+    // A carga acontece com o lock de escrita: uma atualização que chegar durante ela é aplicada depois
+    @EventListener(ApplicationReadyEvent.class)
+    public void montarIndice() {
+        lock.writeLock().lock();
+        try {
+            entradas.clear();
+            produtosPorTrigrama.clear();
+            produtoRepository.buscarParaIndice().forEach(this::indexar);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Produtos ativos cujo nome começa (por palavra) com os termos ou se parece com eles
+    public List<ProdutoBuscaDTO> buscar(String termo, Long categoriaId, Integer limite) {
+        List<String> termos = palavras(termo == null ? "" : termo);
+        if (termos.isEmpty()) {
+            throw new BusinessException("Informe um termo de busca.");
+        }
+
+        int quantidade = limite == null ? LIMITE_PADRAO : Math.min(Math.max(limite, 1), LIMITE_MAXIMO);
+
+        Set<String> trigramasTermo = new HashSet<>();
+        termos.forEach(palavra -> trigramasTermo.addAll(trigramas(palavra, false)));
+
+        List<Resultado> resultados = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            // Quantos trigramas do termo cada produto tem
+            Map<Long, Integer> comuns = new HashMap<>();
+            for (String trigrama : trigramasTermo) {
+                Set<Long> ids = produtosPorTrigrama.get(trigrama);
+                if (ids != null) {
+                    ids.forEach(id -> comuns.merge(id, 1, Integer::sum));
+                }
+            }
+
+            comuns.forEach((id, total) -> {
+                Entrada entrada = entradas.get(id);
+                if (!Boolean.TRUE.equals(entrada.produto().getAtivo())
+                        || (categoriaId != null && !categoriaId.equals(entrada.produto().getCategoriaId()))) {
+                    return;
+                }
+
+                if (casaPorPrefixo(entrada, termos)) {
+                    // Casamentos exatos de prefixo ficam sempre acima dos aproximados
+                    resultados.add(new Resultado(entrada, 1.0 + (double) total / entrada.trigramas().size()));
+                } else {
+                    double similaridade = (double) total / trigramasTermo.size();
+                    if (similaridade >= SIMILARIDADE_MINIMA) {
+                        resultados.add(new Resultado(entrada, similaridade));
+                    }
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return resultados.stream()
+                .sorted(Comparator.comparingDouble(Resultado::pontuacao).reversed()
+                        .thenComparing(resultado -> resultado.entrada().produto().getNome()))
+                .limit(quantidade)
+                .map(resultado -> resultado.entrada().produto())
+                .toList();
+    }
+
+    // O produto é relido ainda dentro da transação (já com a alteração) e entra no índice depois do commit
+    public void produtoAlterado(Long produtoId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reindexar(produtoId, produtoRepository.buscarParaIndice(produtoId));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Optional<ProdutoBuscaDTO> produto;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                produto = produtoRepository.buscarParaIndice(produtoId);
+            }
+
+            @Override
+            public void afterCommit() {
+                reindexar(produtoId, produto);
+            }
+        });
+    }
+
+    public void categoriaAlterada(Long categoriaId, String nome) {
+        aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                entradas.replaceAll((id, entrada) -> {
+                    ProdutoBuscaDTO produto = entrada.produto();
+                    if (!categoriaId.equals(produto.getCategoriaId())) {
+                        return entrada;
+                    }
+                    // Cópia nova: a antiga pode estar sendo serializada em uma resposta
+                    return new Entrada(new ProdutoBuscaDTO(produto.getId(), produto.getNome(), produto.getPreco(),
+                            produto.getAtivo(), categoriaId, nome), entrada.palavras(), entrada.trigramas());
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // A exclusão da categoria remove os produtos dela em cascata
+    public void categoriaRemovida(Long categoriaId) {
+        aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                entradas.values().stream()
+                        .filter(entrada -> categoriaId.equals(entrada.produto().getCategoriaId()))
+                        .map(entrada -> entrada.produto().getId())
+                        .toList()
+                        .forEach(this::remover);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void reindexar(Long produtoId, Optional<ProdutoBuscaDTO> produto) {
+        lock.writeLock().lock();
+        try {
+            remover(produtoId);
+            produto.ifPresent(this::indexar);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexar(ProdutoBuscaDTO produto) {
+        List<String> palavras = palavras(produto.getNome());
+        Set<String> trigramas = new HashSet<>();
+        palavras.forEach(palavra -> trigramas.addAll(trigramas(palavra, true)));
+
+        entradas.put(produto.getId(), new Entrada(produto, palavras, trigramas));
+        trigramas.forEach(trigrama -> produtosPorTrigrama.computeIfAbsent(trigrama, t -> new HashSet<>()).add(produto.getId()));
+    }
+
+    private void remover(Long produtoId) {
+        Entrada entrada = entradas.remove(produtoId);
+        if (entrada == null) {
+            return;
+        }
+
+        for (String trigrama : entrada.trigramas()) {
+            Set<Long> ids = produtosPorTrigrama.get(trigrama);
+            ids.remove(produtoId);
+            if (ids.isEmpty()) {
+                produtosPorTrigrama.remove(trigrama);
+            }
+        }
+    }
+
+    // Todo termo precisa ser início de alguma palavra do nome
+    private boolean casaPorPrefixo(Entrada entrada, List<String> termos) {
+        for (String termo : termos) {
+            if (entrada.palavras().stream().noneMatch(palavra -> palavra.startsWith(termo))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Minúsculas, sem acentos, separado em palavras alfanuméricas
+    private static List<String> palavras(String texto) {
+        String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        return Arrays.stream(SEPARADORES.split(normalizado))
+                .filter(palavra -> !palavra.isEmpty())
+                .toList();
+    }
+
+    // No termo buscado a palavra pode estar incompleta, então não recebe o espaço final
+    private static List<String> trigramas(String palavra, boolean completa) {
+        String marcada = "  " + palavra + (completa ? " " : "");
+        List<String> trigramas = new ArrayList<>(marcada.length() - 2);
+        for (int i = 0; i + 3 <= marcada.length(); i++) {
+            trigramas.add(marcada.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+
+    private void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.EstoqueManager.service;
 
+import com.example.EstoqueManager.dto.CategoriaResumoDTO;
 import com.example.EstoqueManager.exception.BusinessException;
 import com.example.EstoqueManager.exception.ResourceNotFoundException;
 import com.example.EstoqueManager.model.CategoriaModel;
@@ -14,11 +15,18 @@ import java.util.List;
 public class CategoriaService {
 
     private final CategoriaRepository categoriaRepository;
+    private final ProdutoCacheService produtoCacheService;
+    private final VersaoCatalogo versaoCatalogo;
+    private final BuscaProdutoService buscaProdutoService;
 
     public List<CategoriaModel> findAll() {
         return categoriaRepository.findAll();
     }
 
+    public List<CategoriaResumoDTO> buscarResumos() {
+        return categoriaRepository.buscarResumos();
+    }
+
     public CategoriaModel findById(Long id) {
         if (id == null || id <= 0) {
             throw new BusinessException("ID inválido. Deve ser um número positivo.");
@@ -46,7 +54,9 @@ public class CategoriaService {
             throw new BusinessException("Já existe uma categoria com este nome.");
         }
 
-        return categoriaRepository.save(categoria);
+        CategoriaModel categoriaSalva = categoriaRepository.save(categoria);
+        versaoCatalogo.alterado();
+        return categoriaSalva;
     }
 
     public void deleteById(Long id) {
@@ -59,6 +69,10 @@ public class CategoriaService {
         }
 
         categoriaRepository.deleteById(id);
+        // Os produtos da categoria saem junto (cascade); depois da remoção, nenhuma carga em andamento fica no cache
+        produtoCacheService.invalidarTodos();
+        versaoCatalogo.alterado();
+        buscaProdutoService.categoriaRemovida(id);
     }
 
     public CategoriaModel updateById(Long id, CategoriaModel categoriaUpdated) {
@@ -85,6 +99,11 @@ public class CategoriaService {
 
         categoriaExistente.setNome(categoriaUpdated.getNome());
 
-        return categoriaRepository.save(categoriaExistente);
+        CategoriaModel categoriaSalva = categoriaRepository.save(categoriaExistente);
+        // O nome da categoria faz parte dos produtos em cache
+        produtoCacheService.invalidarTodos();
+        versaoCatalogo.alterado();
+        buscaProdutoService.categoriaAlterada(id, categoriaSalva.getNome());
+        return categoriaSalva;
     }
 }
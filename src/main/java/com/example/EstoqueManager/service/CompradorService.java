@@ -1,9 +1,14 @@
 package com.example.EstoqueManager.service;
 
+import com.example.EstoqueManager.dto.CompradorResumoDTO;
+import com.example.EstoqueManager.dto.PaginaDTO;
 import com.example.EstoqueManager.exception.BusinessException;
 import com.example.EstoqueManager.exception.ResourceNotFoundException;
 import com.example.EstoqueManager.model.CompradorModel;
 import com.example.EstoqueManager.repository.CompradorRepository;
+import com.example.EstoqueManager.repository.ItemVendaRepository;
+import com.example.EstoqueManager.repository.VendaRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -14,17 +19,31 @@ import java.util.List;
 public class CompradorService {
 
     private final CompradorRepository compradorRepository;
+    private final Paginacao paginacao;
+    private final VendaRepository vendaRepository;
+    private final ResumoVendaService resumoVendaService;
+    private final AnaliseVendasService analiseVendasService;
+    private final ItemVendaRepository itemVendaRepository;
+    private final FaturamentoProdutoService faturamentoProdutoService;
+
+    public PaginaDTO<CompradorResumoDTO> findAll() {
+        return findPage(null, paginacao.tamanhoMaximo());
+    }
+
+    public PaginaDTO<CompradorResumoDTO> findPage(String cursor, Integer tamanho) {
+        int tamanhoPagina = paginacao.tamanho(tamanho);
+        Long aposId = cursor == null ? 0L : paginacao.decodificarId(cursor);
 
-    public List<CompradorModel> findAll() {
-        return compradorRepository.findAll();
+        return paginacao.montar(compradorRepository.findByIdGreaterThanOrderByIdAsc(aposId, paginacao.limite(tamanhoPagina)),
+                tamanhoPagina, comprador -> paginacao.codificar(comprador.getId()));
     }
 
-    public CompradorModel findById(Long id) {
+    public CompradorResumoDTO findById(Long id) {
         if (id == null || id <= 0) {
             throw new BusinessException("ID inválido. Deve ser um número positivo.");
         }
 
-        return compradorRepository.findById(id)
+        return compradorRepository.findProjectedById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Comprador não encontrado com ID: " + id));
     }
 
@@ -38,6 +57,9 @@ public class CompradorService {
         return compradorRepository.save(comprador);
     }
 
+    // As vendas do comprador são excluídas junto (cascade), então saem também dos resumos, da análise e do
+    // faturamento por produto (que conta as vendas canceladas também, então vão todos os itens)
+    @Transactional
     public void deleteById(Long id) {
         if (id == null || id <= 0) {
             throw new BusinessException("ID inválido. Deve ser um número positivo.");
@@ -47,6 +69,10 @@ public class CompradorService {
             throw new ResourceNotFoundException("Comprador não encontrado com ID: " + id);
         }
 
+        List<Long> vendas = vendaRepository.buscarIdsDoComprador(id);
+        resumoVendaService.registrarVendas(vendas, -1);
+        analiseVendasService.vendasExcluidas(vendas);
+        faturamentoProdutoService.registrarItens(itemVendaRepository.buscarDoComprador(id), -1);
         compradorRepository.deleteById(id);
     }
 
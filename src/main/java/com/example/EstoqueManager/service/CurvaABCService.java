@@ -0,0 +1,125 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.CurvaABCParticaoDTO;
+import com.example.EstoqueManager.dto.FaturamentoPorProdutoDTO;
+import com.example.EstoqueManager.dto.ProdutoCurvaABCDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.repository.CategoriaRepository;
+import com.example.EstoqueManager.repository.ItemVendaRepository;
+import com.example.EstoqueManager.repository.ItemVendaRepositoryCustom;
+import com.example.EstoqueManager.repository.UsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+// Curva ABC com recorte (período, categoria, vendedor) e limites de classe informados pelo usuário.
+// Sem recorte, usa o faturamento acumulado (FaturamentoProdutoService); com recorte, agrega no banco só
+// as vendas do recorte. As curvas por categoria/vendedor saem de uma única consulta agrupada por
+// (partição, produto); só a classificação de cada partição roda em paralelo, em um pool próprio e limitado.
+@Service
+@RequiredArgsConstructor
+public class CurvaABCService {
+
+    private final FaturamentoProdutoService faturamentoProdutoService;
+    private final ItemVendaRepository itemVendaRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final UsuarioRepository usuarioRepository;
+
+    @Value("${produto.curva-abc.paralelismo:4}")
+    private int paralelismo;
+
+    private ForkJoinPool pool;
+
+    public record Filtro(LocalDateTime de, LocalDateTime ate, Long categoriaId, Long usuarioId,
+                         Double limiteA, Double limiteB) { }
+
+    private record Particao(Long id, String nome) { }
+
+    @PostConstruct
+    public void iniciar() {
+        pool = new ForkJoinPool(paralelismo);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdown();
+    }
+
+    public List<ProdutoCurvaABCDTO> curva(Filtro filtro) {
+        validar(filtro);
+        return calcular(filtro, filtro.categoriaId(), filtro.usuarioId());
+    }
+
+    // Uma curva por categoria; categorias sem venda no recorte ficam de fora
+    public List<CurvaABCParticaoDTO> curvaPorCategoria(Filtro filtro) {
+        validar(filtro);
+        List<Particao> categorias = categoriaRepository.findAll().stream()
+                .map(categoria -> new Particao(categoria.getId(), categoria.getNome()))
+                .toList();
+
+        return calcularParticoes(filtro, ItemVendaRepositoryCustom.Agrupamento.CATEGORIA, categorias);
+    }
+
+    // Uma curva por vendedor; vendedores sem venda no recorte ficam de fora
+    public List<CurvaABCParticaoDTO> curvaPorUsuario(Filtro filtro) {
+        validar(filtro);
+        List<Particao> usuarios = usuarioRepository.findAllProjectedByOrderByIdAsc().stream()
+                .map(usuario -> new Particao(usuario.getId(), usuario.getNome()))
+                .toList();
+
+        return calcularParticoes(filtro, ItemVendaRepositoryCustom.Agrupamento.USUARIO, usuarios);
+    }
+
+    private List<ProdutoCurvaABCDTO> calcular(Filtro filtro, Long categoriaId, Long usuarioId) {
+        if (filtro.de() == null && filtro.ate() == null && categoriaId == null && usuarioId == null) {
+            return faturamentoProdutoService.curvaABC(limiteA(filtro), limiteB(filtro));
+        }
+
+        return FaturamentoProdutoService.classificar(
+                itemVendaRepository.somarFaturamentoPorProduto(filtro.de(), filtro.ate(), categoriaId, usuarioId),
+                limiteA(filtro), limiteB(filtro));
+    }
+
+    private List<CurvaABCParticaoDTO> calcularParticoes(Filtro filtro, ItemVendaRepositoryCustom.Agrupamento agrupamento,
+                                                        List<Particao> particoes) {
+        Map<Long, List<FaturamentoPorProdutoDTO>> faturamentos = itemVendaRepository.somarFaturamentoPorParticaoEProduto(
+                agrupamento, filtro.de(), filtro.ate(), filtro.categoriaId(), filtro.usuarioId());
+
+        // O parallelStream submetido ao pool roda nas threads dele, não no ForkJoinPool.commonPool()
+        return pool.submit(() -> particoes.parallelStream()
+                        .filter(particao -> faturamentos.containsKey(particao.id()))
+                        .map(particao -> new CurvaABCParticaoDTO(particao.id(), particao.nome(),
+                                FaturamentoProdutoService.classificar(faturamentos.get(particao.id()),
+                                        limiteA(filtro), limiteB(filtro))))
+                        .filter(particao -> !particao.getProdutos().isEmpty())
+                        .toList())
+                .join();
+    }
+
+    private double limiteA(Filtro filtro) {
+        return filtro.limiteA() != null ? filtro.limiteA() : FaturamentoProdutoService.LIMITE_A_PADRAO;
+    }
+
+    private double limiteB(Filtro filtro) {
+        return filtro.limiteB() != null ? filtro.limiteB() : FaturamentoProdutoService.LIMITE_B_PADRAO;
+    }
+
+    private void validar(Filtro filtro) {
+        if (filtro.de() != null && filtro.ate() != null && filtro.de().isAfter(filtro.ate())) {
+            throw new BusinessException("Data inicial deve ser anterior à data final.");
+        }
+
+        double limiteA = limiteA(filtro);
+        double limiteB = limiteB(filtro);
+        if (limiteA <= 0 || limiteA > limiteB || limiteB > 100) {
+            throw new BusinessException("Limites inválidos: use 0 < limiteA <= limiteB <= 100.");
+        }
+    }
+}
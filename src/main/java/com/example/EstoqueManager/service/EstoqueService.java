@@ -0,0 +1,88 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.exception.ResourceNotFoundException;
+import com.example.EstoqueManager.repository.ProdutoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class EstoqueService {
+
+    private final ProdutoRepository produtoRepository;
+    private final LedgerEstoque ledgerEstoque;
+    private final VersaoCatalogo versaoCatalogo;
+
+    // Retorna os IDs dos produtos sem estoque suficiente. Com o ledger, se houver algum, nada é baixado; no
+    // banco, as linhas com estoque são baixadas mesmo assim e só voltam com o rollback, então quem chama tem
+    // que lançar exceção (ou marcar rollback) dentro da transação quando a lista não vier vazia.
+    // reservadosPorProduto é a quantidade presa em reservas de carrinho que esta venda não pode usar.
+    public List<Long> baixar(Map<Long, Integer> quantidadesPorProduto, Map<Long, Integer> reservadosPorProduto) {
+        if (ledgerEstoque.isHabilitado()) {
+            return ledgerEstoque.reservar(quantidadesPorProduto, reservadosPorProduto);
+        }
+
+        List<Long> semEstoque = produtoRepository.baixarEstoque(quantidadesPorProduto, reservadosPorProduto);
+        if (semEstoque.isEmpty()) {
+            versaoCatalogo.alterado();
+        }
+        return semEstoque;
+    }
+
+    public int quantidadeEmEstoque(Long produtoId) {
+        if (ledgerEstoque.isHabilitado()) {
+            return ledgerEstoque.disponivel(produtoId);
+        }
+
+        return produtoRepository.buscarQuantidade(produtoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado com ID: " + produtoId));
+    }
+
+    // Mesmo que quantidadeEmEstoque, para vários produtos com uma consulta só
+    public Map<Long, Integer> quantidadesEmEstoque(Collection<Long> produtoIds) {
+        Map<Long, Integer> quantidades;
+        if (ledgerEstoque.isHabilitado()) {
+            quantidades = new HashMap<>();
+            for (Long produtoId : produtoIds) {
+                quantidades.put(produtoId, ledgerEstoque.disponivel(produtoId));
+            }
+            return quantidades;
+        }
+
+        quantidades = produtoRepository.buscarQuantidades(produtoIds);
+        for (Long produtoId : produtoIds) {
+            if (!quantidades.containsKey(produtoId)) {
+                throw new ResourceNotFoundException("Produto não encontrado com ID: " + produtoId);
+            }
+        }
+        return quantidades;
+    }
+
+    public void devolver(Map<Long, Integer> quantidadesPorProduto) {
+        if (quantidadesPorProduto.isEmpty()) {
+            return;
+        }
+
+        if (ledgerEstoque.isHabilitado()) {
+            ledgerEstoque.devolver(quantidadesPorProduto);
+        } else {
+            produtoRepository.devolverEstoque(quantidadesPorProduto);
+            versaoCatalogo.alterado();
+        }
+    }
+
+    // Deve ser chamado antes de gravar uma quantidade absoluta no produto: trava a linha e retorna a
+    // quantidade atual (com o ledger, já somado o que ele ainda não tinha gravado)
+    public int alterarQuantidade(Long produtoId, int novaQuantidade) {
+        if (ledgerEstoque.isHabilitado()) {
+            return ledgerEstoque.alterarQuantidade(produtoId, novaQuantidade);
+        }
+
+        return produtoRepository.travarQuantidade(produtoId);
+    }
+}
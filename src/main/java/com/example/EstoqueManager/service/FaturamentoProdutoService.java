@@ -0,0 +1,159 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.FaturamentoPorProdutoDTO;
+import com.example.EstoqueManager.dto.ProdutoCurvaABCDTO;
+import com.example.EstoqueManager.model.FaturamentoProdutoModel;
+import com.example.EstoqueManager.model.ItemVendaModel;
+import com.example.EstoqueManager.repository.FaturamentoProdutoRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Faturamento acumulado por produto (faturamento_produto_table), atualizado na mesma transação de cada
+// venda e troca de itens, e a curva ABC calculada a partir dele. A curva fica em memória e só é refeita
+// quando algum acumulado (ou nome de produto) mudou desde o último cálculo. Vale para uma única instância.
+@Service
+@RequiredArgsConstructor
+public class FaturamentoProdutoService {
+
+    public static final double LIMITE_A_PADRAO = 80;
+    public static final double LIMITE_B_PADRAO = 95;
+
+    private final FaturamentoProdutoRepository faturamentoProdutoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Incrementada depois de cada commit que altera os acumulados
+    private final AtomicLong versao = new AtomicLong();
+
+    private volatile CurvaCalculada curva;
+
+    // Linhas por produto (já ordenadas) e a curva com os limites padrão, calculadas na mesma versão
+    private record CurvaCalculada(long versao, List<FaturamentoPorProdutoDTO> faturamentos,
+                                  List<ProdutoCurvaABCDTO> produtos) { }
+
+    // Roda antes de o servidor aceitar requisições, então nenhuma venda fica de fora da carga inicial
+    @PostConstruct
+    public void criarLinhasFaltantes() {
+        transactionTemplate.executeWithoutResult(status -> faturamentoProdutoRepository.criarLinhasFaltantes());
+    }
+
+    public List<ProdutoCurvaABCDTO> curvaABC() {
+        return curvaAtual().produtos();
+    }
+
+    // Limites diferentes dos padrão reclassificam as linhas em memória, sem ir ao banco
+    public List<ProdutoCurvaABCDTO> curvaABC(double limiteA, double limiteB) {
+        if (limiteA == LIMITE_A_PADRAO && limiteB == LIMITE_B_PADRAO) {
+            return curvaABC();
+        }
+        return classificar(curvaAtual().faturamentos(), limiteA, limiteB);
+    }
+
+    private CurvaCalculada curvaAtual() {
+        long versaoAtual = versao.get();
+        CurvaCalculada calculada = curva;
+        if (calculada != null && calculada.versao() == versaoAtual) {
+            return calculada;
+        }
+
+        List<FaturamentoPorProdutoDTO> faturamentos = List.copyOf(faturamentoProdutoRepository.buscarFaturamentos());
+        calculada = new CurvaCalculada(versaoAtual, faturamentos, Collections.unmodifiableList(
+                classificar(faturamentos, LIMITE_A_PADRAO, LIMITE_B_PADRAO)));
+        curva = calculada;
+        return calculada;
+    }
+
+    // sinal 1 para itens gravados, -1 para itens removidos da venda
+    public void registrarItens(Collection<ItemVendaModel> itens, int sinal) {
+        Map<Long, FaturamentoProdutoModel> deltas = new HashMap<>();
+        for (ItemVendaModel item : itens) {
+            FaturamentoProdutoModel delta = deltas.computeIfAbsent(item.getProduto().getId(),
+                    produtoId -> new FaturamentoProdutoModel(produtoId, 0.0, 0L));
+            // Item sem precoVendido vale pelo preço do produto, como no COALESCE de criarLinhasFaltantes
+            double preco = item.getPrecoVendido() != null ? item.getPrecoVendido() : item.getProduto().getPreco();
+            delta.setValorTotal(delta.getValorTotal() + sinal * item.getQuantidadeVendida() * preco);
+            delta.setQuantidadeVendida(delta.getQuantidadeVendida() + sinal * item.getQuantidadeVendida());
+        }
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Long> semLinha = faturamentoProdutoRepository.acumular(deltas.values());
+        if (!semLinha.isEmpty()) {
+            // A consulta nativa descarrega a sessão antes, então os itens desta transação já entram na soma
+            faturamentoProdutoRepository.criarLinhasFaltantes();
+        }
+
+        alterado();
+    }
+
+    public void produtoCriado(Long produtoId) {
+        faturamentoProdutoRepository.save(new FaturamentoProdutoModel(produtoId, 0.0, 0L));
+    }
+
+    public void produtoRemovido(Long produtoId) {
+        faturamentoProdutoRepository.deleteById(produtoId);
+        alterado();
+    }
+
+    // O nome do produto faz parte da curva
+    public void alterado() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versao.incrementAndGet();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versao.incrementAndGet();
+            }
+        });
+    }
+
+    // Percentuais, acumulado e classificação em uma única passada pelas linhas em ordem decrescente de valor.
+    // Até limiteA (% acumulado) é A, até limiteB é B, o resto é C.
+    static List<ProdutoCurvaABCDTO> classificar(List<FaturamentoPorProdutoDTO> faturamentos,
+                                                double limiteA, double limiteB) {
+        double faturamentoTotal = faturamentos.stream()
+                .mapToDouble(FaturamentoPorProdutoDTO::getValorTotal)
+                .sum();
+
+        if (faturamentoTotal == 0) {
+            return new ArrayList<>();
+        }
+
+        List<ProdutoCurvaABCDTO> listaCurvaABC = new ArrayList<>(faturamentos.size());
+        double acumulado = 0;
+        for (FaturamentoPorProdutoDTO faturamento : faturamentos) {
+            double percentual = (faturamento.getValorTotal() / faturamentoTotal) * 100;
+            acumulado += percentual;
+
+            ProdutoCurvaABCDTO dto = new ProdutoCurvaABCDTO();
+            dto.setId(faturamento.getProdutoId());
+            dto.setNome(faturamento.getNome());
+            dto.setValorTotalVendido(faturamento.getValorTotal());
+            dto.setPercentualFaturamento(percentual);
+            dto.setPercentualAcumulado(acumulado);
+
+            if (acumulado <= limiteA) {
+                dto.setClassificacao("A");
+            } else if (acumulado <= limiteB) {
+                dto.setClassificacao("B");
+            } else {
+                dto.setClassificacao("C");
+            }
+
+            listaCurvaABC.add(dto);
+        }
+
+        return listaCurvaABC;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.VendaRequestDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.exception.ConflitoIdempotenciaException;
+import com.example.EstoqueManager.model.IdempotenciaVendaModel;
+import com.example.EstoqueManager.model.VendaModel;
+import com.example.EstoqueManager.repository.IdempotenciaVendaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Suporte ao header Idempotency-Key na criação de vendas: uma chave já usada devolve a resposta
+// original sem executar criarVendaAPartirDTO de novo (a mesma chave com outro corpo é recusada). Chaves recentes ficam em memória (LRU com TTL),
+// todas ficam na idempotencia_venda_table até expirarem.
+@Service
+@RequiredArgsConstructor
+public class IdempotenciaVendaService {
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 100;
+
+    private final VendaService vendaService;
+    private final IdempotenciaVendaRepository idempotenciaVendaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${venda.idempotencia.ttl-horas:24}")
+    private long ttlHoras;
+
+    @Value("${venda.idempotencia.maximo-memoria:10000}")
+    private int maximoMemoria;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, IdempotenciaVendaModel> recentes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IdempotenciaVendaModel> maisAntiga) {
+            return size() > maximoMemoria;
+        }
+    };
+
+    // Retorna o JSON da resposta: o da venda criada agora ou, numa nova tentativa, o mesmo da primeira vez
+    public String criarVenda(String chave, VendaRequestDTO vendaDTO, Long usuarioId) {
+        validarChave(chave);
+        String hashRequisicao = hash(vendaDTO);
+
+        IdempotenciaVendaModel anterior = buscarRegistro(chave, usuarioId);
+        if (anterior != null && !expirado(anterior)) {
+            return repetir(anterior, hashRequisicao);
+        }
+
+        try {
+            IdempotenciaVendaModel registro = new IdempotenciaVendaModel();
+            transactionTemplate.executeWithoutResult(status -> {
+                // Chave expirada que a limpeza ainda não removeu pode ser reutilizada
+                if (anterior != null) {
+                    idempotenciaVendaRepository.removerCriadasAntesDe(chave, limiteValidade());
+                }
+
+                VendaModel criada = vendaService.criarVendaAPartirDTO(vendaDTO, usuarioId);
+
+                // Mesma transação da venda: ou grava as duas coisas ou nenhuma. A resposta é serializada
+                // aqui, com a sessão aberta, e guardada como foi devolvida.
+                registro.setChave(chave);
+                registro.setUsuarioId(usuarioId);
+                registro.setVendaId(criada.getId());
+                registro.setCriadoEm(LocalDateTime.now());
+                registro.setHashRequisicao(hashRequisicao);
+                registro.setResposta(json(criada));
+                idempotenciaVendaRepository.saveAndFlush(registro);
+            });
+
+            guardarEmMemoria(registro);
+            return registro.getResposta();
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição com a mesma chave gravou primeiro; esta foi desfeita por inteiro
+            IdempotenciaVendaModel vencedor = buscarRegistro(chave, usuarioId);
+            if (vencedor == null || expirado(vencedor)) {
+                throw e;
+            }
+            return repetir(vencedor, hashRequisicao);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${venda.idempotencia.intervalo-limpeza-ms:3600000}")
+    public void removerExpiradas() {
+        LocalDateTime limite = limiteValidade();
+
+        lock.lock();
+        try {
+            recentes.values().removeIf(registro -> registro.getCriadoEm().isBefore(limite));
+        } finally {
+            lock.unlock();
+        }
+
+        transactionTemplate.executeWithoutResult(status -> idempotenciaVendaRepository.removerCriadasAntesDe(limite));
+    }
+
+    private IdempotenciaVendaModel buscarRegistro(String chave, Long usuarioId) {
+        IdempotenciaVendaModel registro = buscarEmMemoria(chave);
+
+        if (registro == null) {
+            registro = idempotenciaVendaRepository.findById(chave).orElse(null);
+            if (registro == null) {
+                return null;
+            }
+            guardarEmMemoria(registro);
+        }
+
+        if (!expirado(registro) && !registro.getUsuarioId().equals(usuarioId)) {
+            throw new BusinessException("Chave de idempotência já utilizada por outro usuário.");
+        }
+
+        return registro;
+    }
+
+    private String repetir(IdempotenciaVendaModel registro, String hashRequisicao) {
+        if (!registro.getHashRequisicao().equals(hashRequisicao)) {
+            throw new ConflitoIdempotenciaException(
+                    "Idempotency-Key já utilizada com outra requisição. Use uma nova chave para uma nova venda.");
+        }
+
+        return registro.getResposta();
+    }
+
+    private String hash(VendaRequestDTO vendaDTO) {
+        try {
+            byte[] corpo = objectMapper.writeValueAsBytes(vendaDTO);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(corpo));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível calcular o hash da requisição.", e);
+        }
+    }
+
+    private String json(VendaModel venda) {
+        try {
+            return objectMapper.writeValueAsString(venda);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar a venda " + venda.getId() + ".", e);
+        }
+    }
+
+    private boolean expirado(IdempotenciaVendaModel registro) {
+        return registro.getCriadoEm().isBefore(limiteValidade());
+    }
+
+    private IdempotenciaVendaModel buscarEmMemoria(String chave) {
+        lock.lock();
+        try {
+            return recentes.get(chave);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void guardarEmMemoria(IdempotenciaVendaModel registro) {
+        lock.lock();
+        try {
+            recentes.put(registro.getChave(), registro);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LocalDateTime limiteValidade() {
+        return LocalDateTime.now().minusHours(ttlHoras);
+    }
+
+    private void validarChave(String chave) {
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new BusinessException("Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.exception.ResourceNotFoundException;
+import com.example.EstoqueManager.repository.ProdutoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Saldo de estoque em memória para produtos muito disputados (promoções relâmpago).
+// As vendas reservam contra o saldo em memória (CAS por produto, sem lock) e só o delta líquido
+// é gravado no banco pelo reconciliar(). Vale apenas para uma única instância da aplicação.
+@Component
+@RequiredArgsConstructor
+public class LedgerEstoque {
+
+    private final ProdutoRepository produtoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final VersaoCatalogo versaoCatalogo;
+
+    private final ConcurrentHashMap<Long, Saldo> saldos = new ConcurrentHashMap<>();
+
+    @Getter
+    @Value("${estoque.ledger.enabled:false}")
+    private boolean habilitado;
+
+    // Reserva todas as quantidades ou nenhuma. Retorna os IDs dos produtos sem saldo suficiente.
+    public List<Long> reservar(Map<Long, Integer> quantidadesPorProduto, Map<Long, Integer> reservadosPorProduto) {
+        Map<Long, Integer> reservados = new TreeMap<>();
+        List<Long> falhas = new ArrayList<>();
+
+        for (Map.Entry<Long, Integer> linha : new TreeMap<>(quantidadesPorProduto).entrySet()) {
+            int margem = reservadosPorProduto.getOrDefault(linha.getKey(), 0);
+            if (saldo(linha.getKey()).tentarReservar(linha.getValue(), margem)) {
+                reservados.put(linha.getKey(), linha.getValue());
+            } else {
+                falhas.add(linha.getKey());
+            }
+        }
+
+        if (!falhas.isEmpty()) {
+            reservados.forEach((produtoId, quantidade) -> saldo(produtoId).disponivel.addAndGet(quantidade));
+            return falhas;
+        }
+
+        // O delta só vira pendente para o banco se a venda for confirmada; no rollback o saldo volta
+        aoConcluirTransacao(
+                () -> reservados.forEach((produtoId, quantidade) -> saldo(produtoId).pendente.addAndGet(-quantidade)),
+                () -> reservados.forEach((produtoId, quantidade) -> saldo(produtoId).disponivel.addAndGet(quantidade)));
+
+        return falhas;
+    }
+
+    public int disponivel(Long produtoId) {
+        return saldo(produtoId).disponivel.get();
+    }
+
+    public void devolver(Map<Long, Integer> quantidadesPorProduto) {
+        Map<Long, Integer> devolucao = new HashMap<>(quantidadesPorProduto);
+
+        aoConcluirTransacao(() -> devolucao.forEach((produtoId, quantidade) -> {
+            Saldo saldo = saldo(produtoId);
+            saldo.disponivel.addAndGet(quantidade);
+            saldo.pendente.addAndGet(quantidade);
+        }), () -> { });
+    }
+
+    // Para o cadastro gravar uma quantidade absoluta: descarrega no banco o que o saldo ainda devia, trava a
+    // linha e retorna a quantidade atual. O saldo em memória não é descartado; no commit ele recebe a diferença
+    // gravada, o mesmo que recarregá-lo do banco, mas sem a janela em que uma venda leria o valor antigo.
+    // Vendas confirmadas nesse meio tempo continuam no pendente e são aplicadas por cima da nova quantidade.
+    public int alterarQuantidade(Long produtoId, int novaQuantidade) {
+        Saldo saldo = saldo(produtoId);
+
+        int pendente = saldo.pendente.getAndSet(0);
+        if (pendente != 0) {
+            produtoRepository.ajustarEstoque(Map.of(produtoId, pendente));
+        }
+
+        int quantidadeAnterior = produtoRepository.travarQuantidade(produtoId);
+        int diferenca = novaQuantidade - quantidadeAnterior;
+
+        // No rollback o delta descarregado não chegou ao banco e volta para o pendente
+        aoConcluirTransacao(() -> saldo.disponivel.addAndGet(diferenca), () -> saldo.pendente.addAndGet(pendente));
+
+        return quantidadeAnterior;
+    }
+
+    @Scheduled(fixedDelayString = "${estoque.ledger.intervalo-reconciliacao-ms:1000}")
+    public void reconciliar() {
+        if (!habilitado || saldos.isEmpty()) {
+            return;
+        }
+
+        // Os saldos nunca saem do mapa; guarda a instância junto do delta para devolvê-lo à mesma em caso de falha
+        Map<Saldo, Integer> retirados = new HashMap<>();
+        Map<Long, Integer> deltas = new HashMap<>();
+        saldos.forEach((produtoId, saldo) -> {
+            int delta = saldo.pendente.getAndSet(0);
+            if (delta != 0) {
+                retirados.put(saldo, delta);
+                deltas.put(produtoId, delta);
+            }
+        });
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> produtoRepository.ajustarEstoque(deltas));
+            versaoCatalogo.alterado();
+        } catch (RuntimeException e) {
+            // Mantém os deltas para a próxima rodada
+            retirados.forEach((saldo, delta) -> saldo.pendente.addAndGet(delta));
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        reconciliar();
+    }
+
+    private Saldo saldo(Long produtoId) {
+        Saldo saldo = saldos.get(produtoId);
+        if (saldo != null) {
+            return saldo;
+        }
+
+        // Consulta fora do computeIfAbsent: o lock interno do ConcurrentHashMap é synchronized e
+        // prenderia a thread virtual ao carrier durante o I/O. Se duas threads carregarem juntas, vale a primeira.
+        int quantidade = produtoRepository.buscarQuantidade(produtoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado com ID: " + produtoId));
+        Saldo existente = saldos.putIfAbsent(produtoId, new Saldo(quantidade));
+        return existente != null ? existente : saldos.get(produtoId);
+    }
+
+    private void aoConcluirTransacao(Runnable aoConfirmar, Runnable aoDesfazer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aoConfirmar.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    aoConfirmar.run();
+                } else {
+                    aoDesfazer.run();
+                }
+            }
+        });
+    }
+
+    private static class Saldo {
+        // Quantidade que ainda pode ser vendida
+        private final AtomicInteger disponivel;
+        // Delta confirmado e ainda não gravado no banco
+        private final AtomicInteger pendente = new AtomicInteger();
+
+        Saldo(int disponivel) {
+            this.disponivel = new AtomicInteger(disponivel);
+        }
+
+        // Só reserva se depois da baixa ainda sobrar pelo menos "margem"
+        boolean tentarReservar(int quantidade, int margem) {
+            while (true) {
+                int atual = disponivel.get();
+                if (atual < quantidade + margem) {
+                    return false;
+                }
+                if (disponivel.compareAndSet(atual, atual - quantidade)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.EstoqueEmDataDTO;
+import com.example.EstoqueManager.dto.QuantidadePorProdutoDTO;
+import com.example.EstoqueManager.dto.QuantidadePorVendaEProdutoDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.model.MovimentacaoEstoqueModel;
+import com.example.EstoqueManager.model.SnapshotEstoqueModel;
+import com.example.EstoqueManager.model.TipoMovimentacao;
+import com.example.EstoqueManager.model.VendaModel;
+import com.example.EstoqueManager.repository.MovimentacaoEstoqueRepository;
+import com.example.EstoqueManager.repository.SnapshotEstoqueRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Livro de movimentações de estoque (só INSERT) escrito pelos fluxos de venda, cancelamento e cadastro
+// de produto, mais snapshots periódicos do saldo por produto. O estoque em uma data é o último snapshot
+// até ela somado às poucas movimentações depois dele, sem reprocessar o histórico inteiro.
+//
+// O corte dos snapshots não é por horário (uma transação longa grava movimentações com horário anterior ao
+// commit): as movimentações de cada transação são gravadas no beforeCommit com a época atual do livro, e a
+// transação fica contada como gravando naquela época até terminar. O snapshot avança a época e espera só as
+// gravações da época que fechou; as novas já vão para a seguinte, sem esperar o snapshot. A época fica em
+// memória (uma instância da aplicação, como o ledger e as reservas) e na subida continua da maior gravada.
+@Service
+@RequiredArgsConstructor
+public class MovimentacaoEstoqueService {
+
+    private final MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+    private final SnapshotEstoqueRepository snapshotEstoqueRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Chave do recurso da transação com as movimentações ainda não gravadas
+    private final Object movimentacoesDaTransacao = new Object();
+
+    // Protege epocaAtual e gravandoPorEpoca; nunca é segurado durante I/O
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition gravacaoConcluida = lock.newCondition();
+    private long epocaAtual;
+    // Transações que gravaram na época e ainda não terminaram
+    private final Map<Long, Integer> gravandoPorEpoca = new HashMap<>();
+
+    // Começa depois da maior época já gravada ou fechada por snapshot
+    @PostConstruct
+    public void prepararEpocas() {
+        long ultima = Math.max(movimentacaoEstoqueRepository.buscarUltimaEpoca().orElse(0L),
+                snapshotEstoqueRepository.buscarUltimaEpoca().orElse(0L));
+        lock.lock();
+        try {
+            epocaAtual = ultima + 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Depois do startup (e do GeradorIdInicializador), para os IDs do gerador já estarem acertados
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarSaldoInicial() {
+        transactionTemplate.executeWithoutResult(status ->
+                registrar(movimentacaoEstoqueRepository.buscarProdutosSemMovimentacao().stream()
+                        .map(produto -> movimentacao(produto.getId(), TipoMovimentacao.AJUSTE,
+                                produto.getQuantidade(), null, null))
+                        .toList()));
+    }
+
+    public void registrarVenda(VendaModel venda) {
+        Map<Long, Integer> quantidadesPorProduto = new HashMap<>();
+        venda.getItens().forEach(item ->
+                quantidadesPorProduto.merge(item.getProduto().getId(), item.getQuantidadeVendida(), Integer::sum));
+
+        registrar(quantidadesPorProduto.entrySet().stream()
+                .map(linha -> movimentacao(linha.getKey(), TipoMovimentacao.VENDA,
+                        -linha.getValue(), venda.getId(), venda.getUsuario().getId()))
+                .toList());
+    }
+
+    public void registrarDevolucoes(List<QuantidadePorVendaEProdutoDTO> quantidades) {
+        registrar(quantidades.stream()
+                .map(linha -> movimentacao(linha.getProdutoId(), TipoMovimentacao.DEVOLUCAO,
+                        linha.getQuantidade().intValue(), linha.getVendaId(), null))
+                .toList());
+    }
+
+    public void registrarAjuste(Long produtoId, int delta, Long usuarioId) {
+        if (delta == 0) {
+            return;
+        }
+
+        registrar(List.of(movimentacao(produtoId, TipoMovimentacao.AJUSTE, delta, null, usuarioId)));
+    }
+
+    public EstoqueEmDataDTO estoqueEm(Long produtoId, LocalDateTime data) {
+        if (produtoId == null || produtoId <= 0) {
+            throw new BusinessException("ID inválido. Deve ser um número positivo.");
+        }
+
+        if (data == null) {
+            throw new BusinessException("Data é obrigatória.");
+        }
+
+        // O snapshot já contém tudo até a sua época, inclusive o que foi confirmado tarde com horário antigo
+        Long quantidade = snapshotEstoqueRepository
+                .findFirstByProdutoIdAndDataLessThanEqualOrderByDataDesc(produtoId, data)
+                .map(snapshot -> snapshot.getQuantidade()
+                        + movimentacaoEstoqueRepository.somarDepoisDaEpoca(produtoId, snapshot.getEpoca(), data))
+                .orElseGet(() -> movimentacaoEstoqueRepository.somarAte(produtoId, data));
+
+        return new EstoqueEmDataDTO(produtoId, data, quantidade);
+    }
+
+    // Cada rodada fecha a época atual e grava um snapshot para os produtos movimentados desde a rodada
+    // anterior: saldo do último snapshot do produto + soma das movimentações das épocas novas.
+    @Scheduled(fixedDelayString = "${estoque.movimentacao.intervalo-snapshot-ms:3600000}")
+    public void gerarSnapshots() {
+        // O horário do snapshot é lido depois da espera, então é posterior ao de todas as movimentações que
+        // ele cobre
+        long epocaFechada = fecharEpoca();
+        LocalDateTime data = LocalDateTime.now();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<Long> anterior = snapshotEstoqueRepository.buscarUltimaEpoca();
+
+            List<QuantidadePorProdutoDTO> deltas = anterior
+                    .map(de -> movimentacaoEstoqueRepository.somarPorProdutoEntreEpocas(de, epocaFechada))
+                    .orElseGet(() -> movimentacaoEstoqueRepository.somarPorProdutoAteEpoca(epocaFechada));
+
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            Map<Long, Integer> saldosAnteriores = anterior.isEmpty() ? Map.of() :
+                    snapshotEstoqueRepository.buscarUltimosPorProdutos(deltas.stream()
+                                    .map(QuantidadePorProdutoDTO::getProdutoId)
+                                    .toList())
+                            .stream()
+                            .collect(Collectors.toMap(SnapshotEstoqueModel::getProdutoId,
+                                    SnapshotEstoqueModel::getQuantidade));
+
+            snapshotEstoqueRepository.saveAll(deltas.stream()
+                    .map(linha -> new SnapshotEstoqueModel(null, linha.getProdutoId(), data,
+                            saldosAnteriores.getOrDefault(linha.getProdutoId(), 0) + linha.getQuantidade().intValue(),
+                            epocaFechada))
+                    .toList());
+        });
+    }
+
+    // Junta as movimentações às já pendentes na transação; a primeira registra a gravação para o beforeCommit
+    @SuppressWarnings("unchecked")
+    private void registrar(List<MovimentacaoEstoqueModel> movimentacoes) {
+        if (movimentacoes.isEmpty()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> registrar(movimentacoes));
+            return;
+        }
+
+        List<MovimentacaoEstoqueModel> pendentes =
+                (List<MovimentacaoEstoqueModel>) TransactionSynchronizationManager.getResource(movimentacoesDaTransacao);
+
+        if (pendentes == null) {
+            List<MovimentacaoEstoqueModel> novas = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(movimentacoesDaTransacao, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private Long epoca;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    epoca = abrirGravacao();
+                    gravar(novas, epoca);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(movimentacoesDaTransacao);
+                    if (epoca != null) {
+                        concluirGravacao(epoca);
+                    }
+                }
+            });
+            pendentes = novas;
+        }
+
+        pendentes.addAll(movimentacoes);
+    }
+
+    private void gravar(List<MovimentacaoEstoqueModel> movimentacoes, long epoca) {
+        LocalDateTime agora = LocalDateTime.now();
+
+        movimentacoes.forEach(movimentacao -> {
+            movimentacao.setEpoca(epoca);
+            movimentacao.setData(agora);
+        });
+        movimentacaoEstoqueRepository.saveAll(movimentacoes);
+    }
+
+    // A transação fica contada na época até o afterCompletion, que vem logo depois do commit
+    private long abrirGravacao() {
+        lock.lock();
+        try {
+            gravandoPorEpoca.merge(epocaAtual, 1, Integer::sum);
+            return epocaAtual;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void concluirGravacao(long epoca) {
+        lock.lock();
+        try {
+            if (gravandoPorEpoca.merge(epoca, -1, Integer::sum) == 0) {
+                gravandoPorEpoca.remove(epoca);
+                gravacaoConcluida.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Avança a época e espera as transações que ainda gravam na que fechou (e em anteriores); depois disso
+    // as épocas até ela não recebem mais nada e tudo o que têm está confirmado
+    private long fecharEpoca() {
+        lock.lock();
+        try {
+            long fechada = epocaAtual++;
+            while (gravandoPorEpoca.keySet().stream().anyMatch(epoca -> epoca <= fechada)) {
+                gravacaoConcluida.await();
+            }
+            return fechada;
+        } catch (InterruptedException e) {
+            // A época já avançou: a próxima rodada cobre também esta
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Snapshot interrompido esperando as gravações da época.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MovimentacaoEstoqueModel movimentacao(Long produtoId, TipoMovimentacao tipo, int quantidade,
+                                                  Long vendaId, Long usuarioId) {
+        return new MovimentacaoEstoqueModel(null, produtoId, tipo, quantidade, null, vendaId, usuarioId, null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.PaginaDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Paginação por cursor (keyset): o cursor guarda a chave da última linha devolvida e a próxima página
+// começa depois dela usando o índice, então o custo não cresce com a posição na tabela (sem OFFSET).
+@Component
+public class Paginacao {
+
+    private static final String SEPARADOR = "|";
+
+    @Value("${paginacao.tamanho-padrao:50}")
+    private int tamanhoPadrao;
+
+    @Value("${paginacao.tamanho-maximo:500}")
+    private int tamanhoMaximo;
+
+    // Listagens findAll antigas: uma página do tamanho máximo, o restante continua pelo cursor
+    public int tamanhoMaximo() {
+        return tamanhoMaximo;
+    }
+
+    public int tamanho(Integer solicitado) {
+        if (solicitado == null) {
+            return tamanhoPadrao;
+        }
+
+        if (solicitado <= 0 || solicitado > tamanhoMaximo) {
+            throw new BusinessException("Tamanho da página deve estar entre 1 e " + tamanhoMaximo + ".");
+        }
+
+        return solicitado;
+    }
+
+    // Busca uma linha a mais que o tamanho da página só para saber se existe próxima página
+    public Limit limite(int tamanho) {
+        return Limit.of(tamanho + 1);
+    }
+
+    public <T> PaginaDTO<T> montar(List<T> linhas, int tamanho, Function<T, String> cursorDaLinha) {
+        if (linhas.size() <= tamanho) {
+            return new PaginaDTO<>(linhas, null);
+        }
+
+        List<T> pagina = linhas.subList(0, tamanho);
+        return new PaginaDTO<>(pagina, cursorDaLinha.apply(pagina.get(tamanho - 1)));
+    }
+
+    public String codificar(Object... partes) {
+        StringBuilder valor = new StringBuilder();
+        for (Object parte : partes) {
+            if (!valor.isEmpty()) {
+                valor.append(SEPARADOR);
+            }
+            valor.append(parte);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String[] decodificar(String cursor, int quantidadePartes) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\" + SEPARADOR, -1);
+
+            if (partes.length != quantidadePartes) {
+                throw new BusinessException("Cursor inválido.");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Cursor inválido.");
+        }
+    }
+
+    public Long decodificarId(String cursor) {
+        try {
+            return Long.parseLong(decodificar(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Cursor inválido.");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.exception.ResourceNotFoundException;
+import com.example.EstoqueManager.model.ProdutoModel;
+import com.example.EstoqueManager.repository.ProdutoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cache em memória dos dados de produto que mudam pouco (nome, preço, ativo, categoria), usado no caminho
+// da venda e das reservas. O estoque NÃO fica aqui: a checagem de estoque continua no UPDATE condicional.
+// Métricas de acerto/erro em cache.gets{cache="produtos"} (/actuator/metrics).
+@Service
+@RequiredArgsConstructor
+public class ProdutoCacheService {
+
+    private final ProdutoRepository produtoRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${produto.cache.tamanho-maximo:1000}")
+    private long tamanhoMaximo;
+
+    @Value("${produto.cache.ttl-segundos:300}")
+    private long ttlSegundos;
+
+    private Cache<Long, Snapshot> cache;
+
+    // Muda a cada invalidação; uma carga que começou antes dela não pode deixar dado velho no cache
+    private final AtomicLong versao = new AtomicLong();
+
+    public record Snapshot(Long id, String nome, Double preco, boolean ativo, Long categoriaId, String categoriaNome) {
+
+        static Snapshot de(ProdutoModel produto) {
+            return new Snapshot(produto.getId(), produto.getNome(), produto.getPreco(), Boolean.TRUE.equals(produto.getAtivo()),
+                    produto.getCategoria().getId(), produto.getCategoria().getNome());
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "produtos");
+    }
+
+    // Snapshots de todos os IDs informados; os que faltam vêm do banco em uma única consulta (IN)
+    public Map<Long, Snapshot> buscar(Collection<Long> ids) {
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BusinessException("ID do produto é obrigatório em todos os itens.");
+        }
+
+        Set<Long> distintos = new HashSet<>(ids);
+        Map<Long, Snapshot> snapshots = new HashMap<>(cache.getAllPresent(distintos));
+
+        if (snapshots.size() < distintos.size()) {
+            Set<Long> faltantes = new HashSet<>(distintos);
+            faltantes.removeAll(snapshots.keySet());
+
+            long versaoAntes = versao.get();
+            Map<Long, Snapshot> carregados = new HashMap<>();
+            produtoRepository.findAllById(faltantes)
+                    .forEach(produto -> carregados.put(produto.getId(), Snapshot.de(produto)));
+
+            cache.putAll(carregados);
+            if (versao.get() != versaoAntes) {
+                // Houve alteração de produto durante a carga: descarta o que pode estar desatualizado
+                cache.invalidateAll(carregados.keySet());
+            }
+            snapshots.putAll(carregados);
+        }
+
+        for (Long id : distintos) {
+            if (!snapshots.containsKey(id)) {
+                throw new ResourceNotFoundException("Produto não encontrado com ID: " + id);
+            }
+        }
+
+        return snapshots;
+    }
+
+    // Remove agora e de novo depois do commit, para nenhuma leitura concorrente recarregar o valor antigo
+    public void invalidar(Long produtoId) {
+        executarInvalidacao(() -> cache.invalidate(produtoId));
+    }
+
+    // Alterações de categoria mudam o nome da categoria em vários snapshots
+    public void invalidarTodos() {
+        executarInvalidacao(() -> cache.invalidateAll());
+    }
+
+    private void executarInvalidacao(Runnable invalidacao) {
+        versao.incrementAndGet();
+        invalidacao.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    versao.incrementAndGet();
+                    invalidacao.run();
+                }
+            });
+        }
+    }
+}
@@ -1,22 +1,19 @@
 package com.example.EstoqueManager.service;
 
-import com.example.EstoqueManager.dto.ProdutoCurvaABCDTO;
+import com.example.EstoqueManager.dto.PaginaDTO;
 import com.example.EstoqueManager.exception.BusinessException;
 import com.example.EstoqueManager.exception.ResourceNotFoundException;
-import com.example.EstoqueManager.model.ItemVendaModel;
 import com.example.EstoqueManager.model.ProdutoModel;
 import com.example.EstoqueManager.model.UsuarioModel;
 import com.example.EstoqueManager.repository.CategoriaRepository;
 import com.example.EstoqueManager.repository.ItemVendaRepository;
 import com.example.EstoqueManager.repository.ProdutoRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,73 +22,43 @@ public class ProdutoService {
     private final ProdutoRepository produtoRepository;
     private final CategoriaRepository categoriaRepository;
     private final ItemVendaRepository itemVendaRepository;
-
-    public List<ProdutoModel> findAll() {
-        return produtoRepository.findAll();
+    private final EstoqueService estoqueService;
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final Paginacao paginacao;
+    private final ProdutoCacheService produtoCacheService;
+    private final VersaoCatalogo versaoCatalogo;
+    private final BuscaProdutoService buscaProdutoService;
+    private final FaturamentoProdutoService faturamentoProdutoService;
+    private final ReservaCarrinhoService reservaCarrinhoService;
+
+    public PaginaDTO<ProdutoModel> findAll() {
+        return findPage(null, paginacao.tamanhoMaximo());
     }
 
-    public List<ProdutoCurvaABCDTO> getCurvaABC() {
-        // Buscar todos os itens de venda
-        List<ItemVendaModel> itensVenda = itemVendaRepository.findAll();
-
-        // Calcular valor total vendido por produto
-        var produtosVenda = itensVenda.stream()
-                .collect(Collectors.groupingBy(
-                        item -> item.getProduto(),
-                        Collectors.summingDouble(item -> {
-                            Double preco = item.getPrecoVendido() != null
-                                    ? item.getPrecoVendido()
-                                    : item.getProduto().getPreco();
-                            return item.getQuantidadeVendida() * preco;
-                        })
-                ));
-
-        // Calcular faturamento total
-        double faturamentoTotal = produtosVenda.values().stream()
-                .mapToDouble(Double::doubleValue)
-                .sum();
-
-        if (faturamentoTotal == 0) {
-            return new ArrayList<>();
-        }
-
-        // Criar lista com percentuais
-        List<ProdutoCurvaABCDTO> listaCurvaABC = produtosVenda.entrySet().stream()
-                .map(entry -> {
-                    ProdutoModel produto = entry.getKey();
-                    Double valorTotal = entry.getValue();
-                    Double percentual = (valorTotal / faturamentoTotal) * 100;
-
-                    ProdutoCurvaABCDTO dto = new ProdutoCurvaABCDTO();
-                    dto.setId(produto.getId());
-                    dto.setNome(produto.getNome());
-                    dto.setValorTotalVendido(valorTotal);
-                    dto.setPercentualFaturamento(percentual);
-                    return dto;
-                })
-                .sorted(Comparator.comparing(ProdutoCurvaABCDTO::getValorTotalVendido).reversed())
-                .collect(Collectors.toList());
-
-        // Calcular percentual acumulado e classificação
-        double acumulado = 0;
-        for (ProdutoCurvaABCDTO dto : listaCurvaABC) {
-            acumulado += dto.getPercentualFaturamento();
-            dto.setPercentualAcumulado(acumulado);
-
-            // Classificar: A = 80%, B = 95%, C = 100%
-            if (acumulado <= 80) {
-                dto.setClassificacao("A");
-            } else if (acumulado <= 95) {
-                dto.setClassificacao("B");
-            } else {
-                dto.setClassificacao("C");
-            }
-        }
-
-        return listaCurvaABC;
+    // Página ordenada por ID; o cursor é o ID da última linha da página anterior
+    public PaginaDTO<ProdutoModel> findPage(String cursor, Integer tamanho) {
+        int tamanhoPagina = paginacao.tamanho(tamanho);
+        Long aposId = cursor == null ? 0L : paginacao.decodificarId(cursor);
+
+        return paginacao.montar(produtoRepository.findByIdGreaterThanOrderByIdAsc(aposId, paginacao.limite(tamanhoPagina)),
+                tamanhoPagina, produto -> paginacao.codificar(produto.getId()));
     }
 
+    public PaginaDTO<ProdutoModel> findPageDaCategoria(Long categoriaId, String cursor, Integer tamanho) {
+        if (!categoriaExiste(categoriaId)) {
+            throw new ResourceNotFoundException("Categoria não encontrada com ID: " + categoriaId);
+        }
+
+        int tamanhoPagina = paginacao.tamanho(tamanho);
+        Long aposId = cursor == null ? 0L : paginacao.decodificarId(cursor);
 
+        return paginacao.montar(produtoRepository.findByCategoriaIdAndIdGreaterThanOrderByIdAsc(
+                        categoriaId, aposId, paginacao.limite(tamanhoPagina)),
+                tamanhoPagina, produto -> paginacao.codificar(produto.getId()));
+    }
+
+    // Não usa o ProdutoCacheService: a resposta traz o estoque e os dados da última alteração, que não ficam no
+    // cache, então ainda seria uma leitura pela chave primária, o mesmo custo desta
     public ProdutoModel findById(Long id) {
         if (id == null || id <= 0) {
             throw new BusinessException("ID inválido. Deve ser um número positivo.");
@@ -101,6 +68,7 @@ public class ProdutoService {
                 .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado com ID: " + id));
     }
 
+    @Transactional
     public ProdutoModel save(ProdutoModel produto, UsuarioModel usuario) {
         validarProduto(produto);
 
@@ -112,7 +80,7 @@ public class ProdutoService {
             throw new BusinessException("Usuário responsável é obrigatório.");
         }
 
-        if (!categoriaRepository.existsById(produto.getCategoria().getId())) {
+        if (!categoriaExiste(produto.getCategoria().getId())) {
             throw new ResourceNotFoundException("Categoria não encontrada com ID: " + produto.getCategoria().getId());
         }
 
@@ -120,9 +88,16 @@ public class ProdutoService {
         produto.setDataUltimaAlteracao(LocalDateTime.now());
         produto.setAtivo(true); // Define como ativo ao criar
 
-        return produtoRepository.save(produto);
+        ProdutoModel produtoSalvo = produtoRepository.save(produto);
+        movimentacaoEstoqueService.registrarAjuste(produtoSalvo.getId(), produtoSalvo.getQuantidade(), usuario.getId());
+        faturamentoProdutoService.produtoCriado(produtoSalvo.getId());
+        produtoCacheService.invalidar(produtoSalvo.getId());
+        versaoCatalogo.alterado();
+        buscaProdutoService.produtoAlterado(produtoSalvo.getId());
+        return produtoSalvo;
     }
 
+    @Transactional
     public ProdutoModel updateByID(Long id, ProdutoModel produtoUpdated, UsuarioModel usuario) {
         if (id == null || id <= 0) {
             throw new BusinessException("ID inválido. Deve ser um número positivo.");
@@ -137,10 +112,15 @@ public class ProdutoService {
         ProdutoModel produtoExistente = produtoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado com ID: " + id));
 
-        if (!categoriaRepository.existsById(produtoUpdated.getCategoria().getId())) {
+        if (!categoriaExiste(produtoUpdated.getCategoria().getId())) {
             throw new ResourceNotFoundException("Categoria não encontrada com ID: " + produtoUpdated.getCategoria().getId());
         }
 
+        // Trava a linha para a diferença registrada no livro bater com as vendas concorrentes
+        int quantidadeAnterior = estoqueService.alterarQuantidade(id, produtoUpdated.getQuantidade());
+        movimentacaoEstoqueService.registrarAjuste(id, produtoUpdated.getQuantidade() - quantidadeAnterior, usuario.getId());
+        reservaCarrinhoService.estoqueAlterado(List.of(id));
+
         produtoExistente.setNome(produtoUpdated.getNome());
         produtoExistente.setQuantidade(produtoUpdated.getQuantidade());
         produtoExistente.setPreco(produtoUpdated.getPreco());
@@ -149,30 +129,45 @@ public class ProdutoService {
         produtoExistente.setUsuarioUltimaAlteracao(usuario);
         produtoExistente.setDataUltimaAlteracao(LocalDateTime.now());
 
+        // Nome, preço, categoria e situação podem ter mudado: o cache de produtos é refeito após o commit
+        produtoCacheService.invalidar(id);
+        versaoCatalogo.alterado();
+        buscaProdutoService.produtoAlterado(id);
+        faturamentoProdutoService.alterado();
+
         return produtoRepository.save(produtoExistente);
     }
 
+    @Transactional
     public void deleteById(Long id) {
         if (id == null || id <= 0) {
             throw new BusinessException("ID inválido. Deve ser um número positivo.");
         }
 
-        ProdutoModel produto = produtoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado com ID: " + id));
+        if (!produtoRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Produto não encontrado com ID: " + id);
+        }
 
         // Verifica se o produto está em alguma venda
-        boolean produtoEmUso = itemVendaRepository.findAll().stream()
-                .anyMatch(item -> item.getProduto().getId().equals(id));
+        boolean produtoEmUso = itemVendaRepository.existsByProdutoId(id);
 
         if (produtoEmUso) {
-            // Soft delete - marca como inativo ao invés de deletar
-            produto.setAtivo(false);
-            produto.setDataUltimaAlteracao(LocalDateTime.now());
-            produtoRepository.save(produto);
+            // Soft delete - marca como inativo ao invés de deletar, sem tocar na quantidade
+            produtoRepository.desativar(id, LocalDateTime.now());
         } else {
             // Hard delete - deleta realmente se não está em nenhuma venda
             produtoRepository.deleteById(id);
+            faturamentoProdutoService.produtoRemovido(id);
         }
+
+        produtoCacheService.invalidar(id);
+        versaoCatalogo.alterado();
+        buscaProdutoService.produtoAlterado(id);
+    }
+
+    // findById em vez de existsById: a categoria sai do cache de segundo nível, sem consulta ao banco
+    private boolean categoriaExiste(Long categoriaId) {
+        return categoriaRepository.findById(categoriaId).isPresent();
     }
 
     private void validarProduto(ProdutoModel produto) {
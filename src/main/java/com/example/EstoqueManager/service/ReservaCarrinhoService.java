@@ -0,0 +1,430 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.DisponibilidadeProdutoDTO;
+import com.example.EstoqueManager.dto.ReservaDTO;
+import com.example.EstoqueManager.dto.ReservaRequestDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Reservas de carrinho com validade: seguram quantidades de produtos enquanto o cliente monta a compra.
+// Ficam só em memória (uma instância da aplicação); a expiração é feita por uma DelayQueue, sem consultar o banco.
+// Vendas sem a reserva não conseguem baixar o que está reservado (ver EstoqueService.baixar).
+// Reservas e vendas passam pelo mesmo lock: a venda lê o que está reservado e se registra como "em andamento"
+// até a transação terminar, e a criação de reserva desconta do estoque também as vendas em andamento, que
+// ainda não aparecem na quantidade confirmada. Assim as duas não conseguem ficar com as mesmas últimas unidades.
+// O estoque de cada produto fica em memória depois da primeira leitura e é atualizado pelas vendas concluídas;
+// só produtos ainda não lidos (ou alterados fora das vendas) vão ao banco, numa consulta, antes de pegar o lock.
+@Service
+@RequiredArgsConstructor
+public class ReservaCarrinhoService {
+
+    private final ProdutoCacheService produtoCacheService;
+    private final EstoqueService estoqueService;
+
+    @Value("${estoque.reserva.ttl-minutos:15}")
+    private long ttlMinutos;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean threadsVirtuais;
+
+    private final ConcurrentHashMap<String, Reserva> reservas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Integer> reservadosPorProduto = new ConcurrentHashMap<>();
+    // Quantidades de vendas ainda não confirmadas, fora o que sai da reserva da própria venda (protegido por lock)
+    private final Map<Long, Integer> emAndamentoPorProduto = new HashMap<>();
+    private final DelayQueue<Reserva> expiracoes = new DelayQueue<>();
+
+    // Estoque conhecido e vendas pendentes por produto (protegido por lock)
+    private final Map<Long, Estoque> estoques = new HashMap<>();
+
+    // Protege reservadosPorProduto, emAndamentoPorProduto, estoques e os itens das reservas; nunca é segurado
+    // durante I/O, só na leitura/registro das quantidades
+    private final ReentrantLock lock = new ReentrantLock();
+    private Thread expirador;
+
+    @PostConstruct
+    public void iniciar() {
+        Thread.Builder builder = threadsVirtuais ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        expirador = builder.name("reserva-carrinho-expiracao").start(this::processarExpiracoes);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        expirador.interrupt();
+    }
+
+    public ReservaDTO criar(ReservaRequestDTO reservaDTO, Long usuarioId) {
+        if (reservaDTO == null || reservaDTO.getItens() == null || reservaDTO.getItens().isEmpty()) {
+            throw new BusinessException("A reserva deve conter pelo menos um item.");
+        }
+
+        Map<Long, Integer> quantidadesPorProduto = new TreeMap<>();
+        for (ReservaRequestDTO.ItemReservaDTO item : reservaDTO.getItens()) {
+            if (item.getProdutoId() == null) {
+                throw new BusinessException("ID do produto é obrigatório em todos os itens.");
+            }
+            if (item.getQuantidade() == null || item.getQuantidade() <= 0) {
+                throw new BusinessException("Quantidade reservada deve ser maior que zero.");
+            }
+            quantidadesPorProduto.merge(item.getProdutoId(), item.getQuantidade(), Integer::sum);
+        }
+
+        Map<Long, ProdutoCacheService.Snapshot> produtos = produtoCacheService.buscar(quantidadesPorProduto.keySet());
+
+        for (ProdutoCacheService.Snapshot produto : produtos.values()) {
+            if (!produto.ativo()) {
+                throw new BusinessException("Produto " + produto.nome() + " está inativo.");
+            }
+        }
+
+        Map<Long, Leitura> leituras = lerEstoque(quantidadesPorProduto.keySet());
+
+        Reserva reserva;
+        lock.lock();
+        try {
+            List<String> semEstoque = new ArrayList<>();
+            quantidadesPorProduto.forEach((produtoId, quantidade) -> {
+                int disponivel = estoqueAtual(produtoId, leituras.get(produtoId)) - reservado(produtoId)
+                        - emAndamentoPorProduto.getOrDefault(produtoId, 0);
+                if (disponivel < quantidade) {
+                    semEstoque.add(String.format("%s (disponível: %d, solicitado: %d)",
+                            produtos.get(produtoId).nome(), Math.max(disponivel, 0), quantidade));
+                }
+            });
+
+            if (!semEstoque.isEmpty()) {
+                throw new BusinessException("Estoque insuficiente para reservar: " + String.join(", ", semEstoque));
+            }
+
+            reserva = new Reserva(UUID.randomUUID().toString(), usuarioId, new HashMap<>(quantidadesPorProduto),
+                    System.nanoTime() + TimeUnit.MINUTES.toNanos(ttlMinutos),
+                    LocalDateTime.now().plusMinutes(ttlMinutos));
+
+            quantidadesPorProduto.forEach((produtoId, quantidade) ->
+                    reservadosPorProduto.merge(produtoId, quantidade, Integer::sum));
+            reservas.put(reserva.id, reserva);
+            expiracoes.add(reserva);
+        } finally {
+            lock.unlock();
+        }
+
+        return paraDTO(reserva);
+    }
+
+    public ReservaDTO buscarPorId(String id) {
+        return paraDTO(buscar(id));
+    }
+
+    public void liberar(String id) {
+        remover(buscar(id));
+    }
+
+    // Reserva informada na venda; null se a venda não usa reserva
+    public Reserva buscarParaVenda(String id, Long usuarioId) {
+        if (id == null) {
+            return null;
+        }
+
+        Reserva reserva = buscar(id);
+        if (!reserva.usuarioId.equals(usuarioId)) {
+            throw new BusinessException("A reserva pertence a outro usuário.");
+        }
+        return reserva;
+    }
+
+    // Quanto de cada produto está preso em reservas que não são a da própria venda. Registra a venda como em
+    // andamento até a transação terminar; no commit, o que ela usou da própria reserva sai da reserva.
+    public Map<Long, Integer> reservadosParaVenda(Map<Long, Integer> quantidadesPorProduto, Reserva propria) {
+        Map<Long, Integer> reservados = new HashMap<>();
+        Map<Long, Integer> emAndamento = new HashMap<>();
+
+        lock.lock();
+        try {
+            // Reserva que venceu ou foi liberada entre a busca e aqui já não desconta nada
+            boolean propriaAtiva = propria != null && reservas.get(propria.id) == propria;
+            quantidadesPorProduto.forEach((produtoId, quantidade) -> {
+                int daPropria = propriaAtiva ? propria.itens.getOrDefault(produtoId, 0) : 0;
+                estoque(produtoId).pendente += quantidade;
+
+                int deOutros = reservado(produtoId) - daPropria;
+                if (deOutros > 0) {
+                    reservados.put(produtoId, deOutros);
+                }
+
+                // O que sai da própria reserva já está descontado do disponível para novas reservas
+                int alemDaReserva = quantidade - Math.min(quantidade, daPropria);
+                if (alemDaReserva > 0) {
+                    emAndamento.put(produtoId, alemDaReserva);
+                    emAndamentoPorProduto.merge(produtoId, alemDaReserva, Integer::sum);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            concluirVenda(emAndamento, propria, quantidadesPorProduto, true);
+            return reservados;
+        }
+
+        Map<Long, Integer> usados = Map.copyOf(quantidadesPorProduto);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                concluirVenda(emAndamento, propria, usados, status == STATUS_COMMITTED);
+            }
+        });
+        return reservados;
+    }
+
+    public DisponibilidadeProdutoDTO disponibilidade(Long produtoId) {
+        if (produtoId == null || produtoId <= 0) {
+            throw new BusinessException("ID inválido. Deve ser um número positivo.");
+        }
+
+        Leitura leitura = lerEstoque(List.of(produtoId)).get(produtoId);
+
+        int estoque;
+        int reservado;
+        lock.lock();
+        try {
+            estoque = estoqueAtual(produtoId, leitura);
+            reservado = reservado(produtoId);
+        } finally {
+            lock.unlock();
+        }
+        return new DisponibilidadeProdutoDTO(produtoId, estoque, reservado, Math.max(estoque - reservado, 0));
+    }
+
+    // Estoque alterado fora das vendas (cancelamento, devolução, ajuste manual): a quantidade em memória é
+    // descartada agora e de novo quando a transação terminar, e volta a ser lida do banco quando for usada
+    public void estoqueAlterado(Collection<Long> produtoIds) {
+        Runnable descartar = () -> {
+            lock.lock();
+            try {
+                produtoIds.forEach(produtoId -> {
+                    Estoque estoque = estoque(produtoId);
+                    estoque.quantidade = null;
+                    estoque.alteracoes++;
+                });
+            } finally {
+                lock.unlock();
+            }
+        };
+
+        descartar.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    descartar.run();
+                }
+            });
+        }
+    }
+
+    // Marca, sob o lock, o estado de cada produto e lê do banco (fora do lock, numa consulta) só os que ainda
+    // não têm estoque em memória
+    private Map<Long, Leitura> lerEstoque(Collection<Long> produtoIds) {
+        Map<Long, Leitura> leituras = new HashMap<>();
+        List<Long> desconhecidos = new ArrayList<>();
+
+        lock.lock();
+        try {
+            for (Long produtoId : produtoIds) {
+                // Sem criar a entrada: um ID inexistente não deixa nada em memória
+                Estoque estoque = estoques.getOrDefault(produtoId, new Estoque());
+                leituras.put(produtoId, new Leitura(estoque.quantidade, estoque.quantidade == null,
+                        estoque.vendido, estoque.alteracoes));
+                if (estoque.quantidade == null) {
+                    desconhecidos.add(produtoId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!desconhecidos.isEmpty()) {
+            estoqueService.quantidadesEmEstoque(desconhecidos).forEach((produtoId, quantidade) ->
+                    leituras.computeIfPresent(produtoId, (id, marca) -> marca.comQuantidade(quantidade)));
+        }
+        return leituras;
+    }
+
+    // Sob o lock. O estoque em memória, se houver; senão a leitura do banco, que só fica guardada se nenhuma venda
+    // estava pendente nem terminou desde a marcação (senão ela pode ou não incluir essa venda). Sem guardar,
+    // desconta as vendas concluídas desde a marcação: se a leitura já as incluía, o erro é para menos.
+    private int estoqueAtual(Long produtoId, Leitura leitura) {
+        Estoque estoque = estoque(produtoId);
+        if (estoque.quantidade != null) {
+            return estoque.quantidade;
+        }
+
+        if (leitura.doBanco() && estoque.pendente == 0 && estoque.vendido == leitura.vendido()
+                && estoque.alteracoes == leitura.alteracoes()) {
+            estoque.quantidade = leitura.quantidade();
+            return leitura.quantidade();
+        }
+        return leitura.quantidade() - (int) (estoque.vendido - leitura.vendido());
+    }
+
+    private Estoque estoque(Long produtoId) {
+        return estoques.computeIfAbsent(produtoId, id -> new Estoque());
+    }
+
+    private void processarExpiracoes() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                remover(expiracoes.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Na confirmação, cada produto da reserva perde só o que a venda levou; o restante continua reservado até
+    // vencer ou ser liberado. No rollback a reserva fica como estava.
+    private void concluirVenda(Map<Long, Integer> emAndamento, Reserva propria, Map<Long, Integer> usados,
+                               boolean confirmada) {
+        lock.lock();
+        try {
+            emAndamento.forEach((produtoId, quantidade) -> emAndamentoPorProduto.computeIfPresent(produtoId,
+                    (id, total) -> total - quantidade > 0 ? total - quantidade : null));
+
+            usados.forEach((produtoId, quantidade) -> {
+                Estoque estoque = estoque(produtoId);
+                estoque.pendente -= quantidade;
+                if (confirmada) {
+                    estoque.vendido += quantidade;
+                    if (estoque.quantidade != null) {
+                        estoque.quantidade -= quantidade;
+                    }
+                }
+            });
+
+            if (!confirmada || propria == null || reservas.get(propria.id) != propria) {
+                return;
+            }
+
+            usados.forEach((produtoId, quantidade) -> {
+                int consumido = Math.min(quantidade, propria.itens.getOrDefault(produtoId, 0));
+                if (consumido > 0) {
+                    propria.itens.computeIfPresent(produtoId,
+                            (id, reservado) -> reservado - consumido > 0 ? reservado - consumido : null);
+                    descontar(produtoId, consumido);
+                }
+            });
+
+            if (propria.itens.isEmpty()) {
+                reservas.remove(propria.id, propria);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Reservas removidas antes (venda, liberação) continuam na fila até o vencimento; lá são só descartadas
+    private void remover(Reserva reserva) {
+        lock.lock();
+        try {
+            if (!reservas.remove(reserva.id, reserva)) {
+                return;
+            }
+
+            reserva.itens.forEach(this::descontar);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void descontar(Long produtoId, int quantidade) {
+        reservadosPorProduto.computeIfPresent(produtoId,
+                (id, total) -> total - quantidade > 0 ? total - quantidade : null);
+    }
+
+    private Reserva buscar(String id) {
+        Reserva reserva = reservas.get(id);
+        if (reserva == null) {
+            throw new ResourceNotFoundException("Reserva não encontrada ou expirada: " + id);
+        }
+        return reserva;
+    }
+
+    private int reservado(Long produtoId) {
+        return reservadosPorProduto.getOrDefault(produtoId, 0);
+    }
+
+    private ReservaDTO paraDTO(Reserva reserva) {
+        Map<Long, Integer> itens;
+        lock.lock();
+        try {
+            itens = new TreeMap<>(reserva.itens);
+        } finally {
+            lock.unlock();
+        }
+
+        return new ReservaDTO(reserva.id, reserva.usuarioId, reserva.expiraEm, itens.entrySet().stream()
+                .map(linha -> new ReservaRequestDTO.ItemReservaDTO(linha.getKey(), linha.getValue()))
+                .toList());
+    }
+
+    // Estoque de um produto como as reservas enxergam; protegido pelo lock do serviço
+    private static final class Estoque {
+        // Última leitura do banco menos as vendas concluídas depois dela; null se ainda não lido ou descartado
+        private Integer quantidade;
+        // Soma das vendas registradas e ainda não concluídas
+        private int pendente;
+        // Total vendido e número de alterações externas desde a subida: marcam se uma leitura ficou velha
+        private long vendido;
+        private long alteracoes;
+    }
+
+    // Estado de um produto marcado antes da leitura do banco; quantidade é a do banco se doBanco
+    private record Leitura(Integer quantidade, boolean doBanco, long vendido, long alteracoes) {
+
+        Leitura comQuantidade(int lida) {
+            return new Leitura(lida, true, vendido, alteracoes);
+        }
+    }
+
+    public static final class Reserva implements Delayed {
+        private final String id;
+        private final Long usuarioId;
+        // Diminui conforme vendas usam a reserva; protegido pelo lock do serviço
+        private final Map<Long, Integer> itens;
+        private final long expiraEmNanos;
+        private final LocalDateTime expiraEm;
+
+        private Reserva(String id, Long usuarioId, Map<Long, Integer> itens, long expiraEmNanos, LocalDateTime expiraEm) {
+            this.id = id;
+            this.usuarioId = usuarioId;
+            this.itens = itens;
+            this.expiraEmNanos = expiraEmNanos;
+            this.expiraEm = expiraEm;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiraEmNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed outra) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), outra.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.LinhaVendaDTO;
+import com.example.EstoqueManager.dto.ResumoVendaDTO;
+import com.example.EstoqueManager.dto.ResumoVendaPeriodoDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.model.*;
+import com.example.EstoqueManager.repository.ItemVendaRepository;
+import com.example.EstoqueManager.repository.ResumoVendaRepository;
+import com.example.EstoqueManager.repository.VendaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Resumos de vendas por hora e por dia (resumo_venda_table), para os relatórios de período não varrerem
+// venda_table/item_venda_table. Só vendas ativas entram: criar uma venda soma, cancelar subtrai e alterar
+// subtrai o estado anterior e soma o novo. Os deltas de uma transação são juntados e gravados uma vez,
+// no beforeCommit, então as linhas mais disputadas (TOTAL da hora) ficam travadas só durante o commit.
+@Service
+@RequiredArgsConstructor
+public class ResumoVendaService {
+
+    private static final int DIAS_MAXIMO_REPROCESSAMENTO = 366;
+
+    private final ResumoVendaRepository resumoVendaRepository;
+    private final ItemVendaRepository itemVendaRepository;
+    private final VendaRepository vendaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Chave do recurso da transação com os deltas ainda não gravados
+    private final Object deltasDaTransacao = new Object();
+
+    private record Chave(DimensaoResumo dimensao, GranularidadeResumo granularidade, LocalDateTime inicio,
+                         String chave) { }
+
+    private record Linha(Long vendaId, LocalDateTime data, Long usuarioId, MetodoPagamento metodoPagamento,
+                         Long produtoId, int quantidade, double precoVendido) { }
+
+    // sinal 1 para a venda como está agora, -1 para tirar a venda (cancelamento ou antes de uma alteração).
+    // Os valores são lidos na hora, então a venda pode ser alterada em seguida. Item sem precoVendido vale
+    // pelo preço do produto, como no COALESCE das consultas de linhas.
+    public void registrar(VendaModel venda, int sinal) {
+        acumular(agregar(venda.getItens().stream()
+                .map(item -> new Linha(venda.getId(), venda.getData(), venda.getUsuario().getId(),
+                        venda.getMetodoPagamento(), item.getProduto().getId(), item.getQuantidadeVendida(),
+                        item.getPrecoVendido() != null ? item.getPrecoVendido() : item.getProduto().getPreco()))
+                .toList(), sinal));
+    }
+
+    // Mesmo que registrar, para vendas alteradas direto no banco (cancelamento em lote); as já canceladas
+    // não estão nos resumos e são ignoradas
+    public void registrarVendas(Collection<Long> vendaIds, int sinal) {
+        if (vendaIds.isEmpty()) {
+            return;
+        }
+        acumular(agregar(linhas(itemVendaRepository.buscarLinhasDasVendasAtivas(vendaIds)), sinal));
+    }
+
+    // Totais do período [de, ate) por item do recorte; com granularidade, um total por hora ou dia.
+    // O período precisa começar e terminar em hora cheia (dia inteiro para granularidade DIA).
+    public List<? extends ResumoVendaDTO> resumo(LocalDateTime de, LocalDateTime ate, String dimensao,
+                                                 String granularidade) {
+        if (de == null || ate == null) {
+            throw new BusinessException("Informe o período (de e ate).");
+        }
+
+        if (!de.isBefore(ate)) {
+            throw new BusinessException("Data inicial deve ser anterior à data final.");
+        }
+
+        DimensaoResumo dimensaoResumo = enumValida(DimensaoResumo.class, dimensao, "Dimensão");
+
+        if (granularidade != null) {
+            GranularidadeResumo granularidadeResumo = enumValida(GranularidadeResumo.class, granularidade, "Granularidade");
+            ChronoUnit unidade = granularidadeResumo == GranularidadeResumo.HORA ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+            validarAlinhamento(de, ate, unidade);
+            return resumoVendaRepository.buscarPorPeriodo(dimensaoResumo, granularidadeResumo, de, ate);
+        }
+
+        validarAlinhamento(de, ate, ChronoUnit.HOURS);
+
+        // Dias inteiros dentro do período; se não houver nenhum, o período todo sai das linhas de hora
+        LocalDateTime inicioDias = de.truncatedTo(ChronoUnit.DAYS);
+        if (inicioDias.isBefore(de)) {
+            inicioDias = inicioDias.plusDays(1);
+        }
+        LocalDateTime fimDias = ate.truncatedTo(ChronoUnit.DAYS);
+        if (!inicioDias.isBefore(fimDias)) {
+            inicioDias = ate;
+            fimDias = ate;
+        }
+
+        return resumoVendaRepository.somarPorChave(dimensaoResumo, de, inicioDias, fimDias, ate);
+    }
+
+    // Remonta os resumos dos dias [de, ate] a partir das vendas, um dia por transação
+    public void reprocessar(LocalDate de, LocalDate ate) {
+        if (de == null || ate == null) {
+            throw new BusinessException("Informe o período (de e ate).");
+        }
+
+        if (de.isAfter(ate)) {
+            throw new BusinessException("Data inicial deve ser anterior à data final.");
+        }
+
+        if (ChronoUnit.DAYS.between(de, ate) >= DIAS_MAXIMO_REPROCESSAMENTO) {
+            throw new BusinessException("Período máximo de reprocessamento: " + DIAS_MAXIMO_REPROCESSAMENTO + " dias.");
+        }
+
+        de.datesUntil(ate.plusDays(1)).forEach(this::reprocessarDia);
+    }
+
+    // Monta os dias com venda ativa que ainda não têm resumo (primeira subida com histórico, vendas gravadas
+    // fora da aplicação). Roda com a aplicação já atendendo: ver reprocessarDia.
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarHistorico() {
+        Set<LocalDate> resumidos = resumoVendaRepository.buscarDiasResumidos().stream()
+                .map(LocalDateTime::toLocalDate)
+                .collect(Collectors.toSet());
+
+        vendaRepository.buscarDiasComVendaAtiva().stream()
+                .filter(dia -> !resumidos.contains(dia))
+                .sorted()
+                .forEach(this::reprocessarDia);
+    }
+
+    // Apaga o dia antes de ler as vendas: uma venda que ainda não fez commit espera o DELETE (as linhas ou o
+    // intervalo delas ficam travados) e soma o seu delta por cima do dia remontado, sem contar duas vezes
+    private void reprocessarDia(LocalDate dia) {
+        LocalDateTime de = dia.atStartOfDay();
+        LocalDateTime ate = de.plusDays(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            resumoVendaRepository.apagarEntre(EnumSet.allOf(DimensaoResumo.class),
+                    EnumSet.allOf(GranularidadeResumo.class), de, ate);
+            gravar(agregar(linhas(itemVendaRepository.buscarLinhasDeVendasAtivas(de, ate)), 1));
+        });
+    }
+
+    // Cada item entra nas linhas de hora e de dia do TOTAL, da forma de pagamento, do produto e do vendedor;
+    // cada venda conta uma vez em cada linha em que algum item dela entrou
+    private Map<Chave, ResumoVendaModel> agregar(List<Linha> linhas, int sinal) {
+        Map<Chave, ResumoVendaModel> deltas = new HashMap<>();
+        Map<Long, Set<Chave>> chavesPorVenda = new HashMap<>();
+
+        for (Linha linha : linhas) {
+            Set<Chave> chavesDaVenda = chavesPorVenda.computeIfAbsent(linha.vendaId(), id -> new HashSet<>());
+            double valor = sinal * linha.quantidade() * linha.precoVendido();
+
+            for (Chave chave : chaves(linha)) {
+                ResumoVendaModel delta = deltas.computeIfAbsent(chave, this::linhaZerada);
+                delta.setValorTotal(delta.getValorTotal() + valor);
+                delta.setQuantidade(delta.getQuantidade() + (long) sinal * linha.quantidade());
+                chavesDaVenda.add(chave);
+            }
+        }
+
+        chavesPorVenda.values().forEach(chaves -> chaves.forEach(chave -> {
+            ResumoVendaModel delta = deltas.get(chave);
+            delta.setVendas(delta.getVendas() + sinal);
+        }));
+
+        return deltas;
+    }
+
+    private List<Chave> chaves(Linha linha) {
+        LocalDateTime hora = linha.data().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime dia = linha.data().truncatedTo(ChronoUnit.DAYS);
+
+        List<Chave> chaves = new ArrayList<>(8);
+        for (GranularidadeResumo granularidade : GranularidadeResumo.values()) {
+            LocalDateTime inicio = granularidade == GranularidadeResumo.HORA ? hora : dia;
+            chaves.add(new Chave(DimensaoResumo.TOTAL, granularidade, inicio, ""));
+            chaves.add(new Chave(DimensaoResumo.METODO_PAGAMENTO, granularidade, inicio, linha.metodoPagamento().name()));
+            chaves.add(new Chave(DimensaoResumo.PRODUTO, granularidade, inicio, linha.produtoId().toString()));
+            chaves.add(new Chave(DimensaoResumo.USUARIO, granularidade, inicio, linha.usuarioId().toString()));
+        }
+        return chaves;
+    }
+
+    private ResumoVendaModel linhaZerada(Chave chave) {
+        return new ResumoVendaModel(null, chave.dimensao(), chave.granularidade(), chave.inicio(), chave.chave(),
+                0.0, 0L, 0L);
+    }
+
+    private List<Linha> linhas(List<LinhaVendaDTO> projecoes) {
+        return projecoes.stream()
+                .map(linha -> new Linha(linha.getVendaId(), linha.getData(), linha.getUsuarioId(),
+                        linha.getMetodoPagamento(), linha.getProdutoId(), linha.getQuantidade(),
+                        linha.getPrecoVendido()))
+                .toList();
+    }
+
+    // Junta os deltas aos já acumulados na transação; o primeiro registra a gravação para o beforeCommit
+    @SuppressWarnings("unchecked")
+    private void acumular(Map<Chave, ResumoVendaModel> deltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            gravar(deltas);
+            return;
+        }
+
+        Map<Chave, ResumoVendaModel> pendentes =
+                (Map<Chave, ResumoVendaModel>) TransactionSynchronizationManager.getResource(deltasDaTransacao);
+
+        if (pendentes == null) {
+            Map<Chave, ResumoVendaModel> novos = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(deltasDaTransacao, novos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    gravar(novos);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(deltasDaTransacao);
+                }
+            });
+            pendentes = novos;
+        }
+
+        for (Map.Entry<Chave, ResumoVendaModel> delta : deltas.entrySet()) {
+            ResumoVendaModel pendente = pendentes.computeIfAbsent(delta.getKey(), this::linhaZerada);
+            pendente.setValorTotal(pendente.getValorTotal() + delta.getValue().getValorTotal());
+            pendente.setQuantidade(pendente.getQuantidade() + delta.getValue().getQuantidade());
+            pendente.setVendas(pendente.getVendas() + delta.getValue().getVendas());
+        }
+    }
+
+    // Deltas que se anularam na transação (ex.: venda alterada sem mudar itens, data, vendedor ou pagamento)
+    // não chegam ao banco
+    private void gravar(Map<Chave, ResumoVendaModel> deltas) {
+        List<ResumoVendaModel> alterados = deltas.values().stream()
+                .filter(delta -> delta.getValorTotal() != 0 || delta.getQuantidade() != 0 || delta.getVendas() != 0)
+                .toList();
+
+        if (!alterados.isEmpty()) {
+            resumoVendaRepository.acumular(alterados);
+        }
+    }
+
+    private static <E extends Enum<E>> E enumValida(Class<E> tipo, String valor, String campo) {
+        try {
+            return Enum.valueOf(tipo, valor.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(campo + " inválida. Use: " + Arrays.toString(tipo.getEnumConstants()) + ".");
+        }
+    }
+
+    private static void validarAlinhamento(LocalDateTime de, LocalDateTime ate, ChronoUnit unidade) {
+        if (!de.equals(de.truncatedTo(unidade)) || !ate.equals(ate.truncatedTo(unidade))) {
+            throw new BusinessException(unidade == ChronoUnit.HOURS
+                    ? "O período deve começar e terminar em hora cheia."
+                    : "O período deve começar e terminar à meia-noite.");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.EstoqueManager.service;
 
+import com.example.EstoqueManager.dto.PaginaDTO;
+import com.example.EstoqueManager.dto.UsuarioResumoDTO;
 import com.example.EstoqueManager.exception.BusinessException;
 import com.example.EstoqueManager.exception.ResourceNotFoundException;
 import com.example.EstoqueManager.model.Cargo;
@@ -17,6 +19,8 @@ public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final Paginacao paginacao;
+    private final VersaoCatalogo versaoCatalogo;
 
     UsuarioModel autenticar(String login, String senha) {
         UsuarioModel usuario = usuarioRepository.findByLogin(login);
@@ -34,8 +38,16 @@ public class UsuarioService {
 
 
 
-    public List<UsuarioModel> findAll() {
-        return usuarioRepository.findAll();
+    public PaginaDTO<UsuarioResumoDTO> findAll() {
+        return findPage(null, paginacao.tamanhoMaximo());
+    }
+
+    public PaginaDTO<UsuarioResumoDTO> findPage(String cursor, Integer tamanho) {
+        int tamanhoPagina = paginacao.tamanho(tamanho);
+        Long aposId = cursor == null ? 0L : paginacao.decodificarId(cursor);
+
+        return paginacao.montar(usuarioRepository.findByIdGreaterThanOrderByIdAsc(aposId, paginacao.limite(tamanhoPagina)),
+                tamanhoPagina, usuario -> paginacao.codificar(usuario.getId()));
     }
 
     public UsuarioModel findById(Long id) {
@@ -47,6 +59,15 @@ public class UsuarioService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado com ID: " + id));
     }
 
+    public UsuarioResumoDTO buscarResumoPorId(Long id) {
+        if (id == null || id <= 0) {
+            throw new BusinessException("ID inválido. Deve ser um número positivo.");
+        }
+
+        return usuarioRepository.findProjectedById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado com ID: " + id));
+    }
+
     public UsuarioModel save(UsuarioModel usuario) {
         validarUsuario(usuario);
 
@@ -99,7 +120,11 @@ public class UsuarioService {
         usuarioExistente.setLogin(usuarioUpdated.getLogin());
         usuarioExistente.setSenha(passwordEncoder.encode(usuarioUpdated.getSenha()));
         usuarioExistente.setCargo(usuarioUpdated.getCargo());
-        return usuarioRepository.save(usuarioExistente);
+
+        UsuarioModel usuarioSalvo = usuarioRepository.save(usuarioExistente);
+        // Os produtos trazem o usuário da última alteração no JSON do catálogo
+        versaoCatalogo.alterado();
+        return usuarioSalvo;
     }
 
     private void validarUsuario(UsuarioModel usuario) {
@@ -133,8 +158,7 @@ public class UsuarioService {
     }
 
     public boolean existeAdministrador() {
-        return usuarioRepository.findAll().stream()
-                .anyMatch(usuario -> usuario.getCargo() == Cargo.ADM);
+        return usuarioRepository.existsByCargo(Cargo.ADM);
     }
 
 }
\ No newline at end of file
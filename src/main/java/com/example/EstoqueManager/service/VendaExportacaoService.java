@@ -0,0 +1,275 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Exportação completa de vendas para o financeiro. Lê venda_table + item_venda_table com um cursor JDBC
+// só de avanço e escreve cada linha direto na resposta: nada passa pelo contexto de persistência do
+// Hibernate e a memória usada não depende da quantidade de vendas exportadas.
+@Service
+@RequiredArgsConstructor
+public class VendaExportacaoService {
+
+    private static final String SQL_EXPORTACAO =
+            "SELECT v.id, v.data, v.valortotal, v.ativo, v.metodo_pagamento, v.valor_pago, v.troco, " +
+            "v.itens_devolvidos, v.usuario_id, v.comprador_id, " +
+            "i.id AS item_id, i.produto_id, i.quantidade_vendida, i.preco_vendido " +
+            "FROM venda_table v LEFT JOIN item_venda_table i ON i.venda_id = v.id";
+
+    private static final String CABECALHO_CSV = "venda_id,data,valor_total,ativo,metodo_pagamento,valor_pago,troco," +
+            "itens_devolvidos,usuario_id,comprador_id,item_id,produto_id,quantidade_vendida,preco_vendido";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Integer.MIN_VALUE faz o driver do MySQL entregar as linhas uma a uma em vez de carregar o resultado inteiro
+    @Value("${venda.exportacao.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    @Getter
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+    }
+
+    // Validações feitas antes de começar a escrever a resposta, para ainda dar tempo de devolver 400
+    public Formato validar(String formato, LocalDateTime de, LocalDateTime ate) {
+        if (de != null && ate != null && de.isAfter(ate)) {
+            throw new BusinessException("Data inicial deve ser anterior à data final.");
+        }
+
+        try {
+            return Formato.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Formato inválido. Use 'ndjson' ou 'csv'.");
+        }
+    }
+
+    public void exportar(Formato formato, LocalDateTime de, LocalDateTime ate, OutputStream saida) throws IOException {
+        StringBuilder sql = new StringBuilder(SQL_EXPORTACAO);
+        List<Object> parametros = new ArrayList<>();
+
+        if (de != null) {
+            parametros.add(de);
+        }
+        if (ate != null) {
+            parametros.add(ate);
+        }
+        if (de != null || ate != null) {
+            sql.append(" WHERE ").append(de != null && ate != null ? "v.data >= ? AND v.data <= ?"
+                    : de != null ? "v.data >= ?" : "v.data <= ?");
+        }
+
+        // As linhas de uma mesma venda chegam juntas; a ordem (data, id) usa o índice de venda_table
+        sql.append(" ORDER BY v.data, v.id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 64 * 1024);
+        Escritor escritor = formato == Formato.NDJSON ? new EscritorNdjson(writer) : new EscritorCsv(writer);
+
+        try {
+            jdbcTemplate.query(conexao -> {
+                PreparedStatement ps = conexao.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < parametros.size(); i++) {
+                    ps.setObject(i + 1, parametros.get(i));
+                }
+                return ps;
+            }, (RowCallbackHandler) escritor::processarLinha);
+
+            escritor.finalizar();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+    }
+
+    // Agrupa as linhas do JOIN por venda: abre a venda quando o ID muda e escreve um item por linha
+    private abstract static class Escritor {
+
+        protected final Writer writer;
+        private Long vendaAtual;
+
+        Escritor(Writer writer) {
+            this.writer = writer;
+        }
+
+        void processarLinha(ResultSet rs) throws SQLException {
+            try {
+                long vendaId = rs.getLong("id");
+                if (vendaAtual == null || vendaAtual != vendaId) {
+                    if (vendaAtual != null) {
+                        fecharVenda();
+                    }
+                    vendaAtual = vendaId;
+                    abrirVenda(rs);
+                }
+
+                if (rs.getObject("item_id") != null) {
+                    escreverItem(rs);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finalizar() throws IOException {
+            if (vendaAtual != null) {
+                fecharVenda();
+            }
+        }
+
+        abstract void abrirVenda(ResultSet rs) throws SQLException, IOException;
+
+        abstract void escreverItem(ResultSet rs) throws SQLException, IOException;
+
+        abstract void fecharVenda() throws IOException;
+    }
+
+    // Uma venda por linha, com os itens aninhados
+    private class EscritorNdjson extends Escritor {
+
+        private final JsonGenerator json;
+
+        EscritorNdjson(Writer writer) throws IOException {
+            super(writer);
+            this.json = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // O separador padrão entre valores de raiz é um espaço, que sairia no começo de cada linha depois
+            // da primeira; as linhas já são separadas por '\n' em fecharVenda
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        void abrirVenda(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong("id"));
+            json.writeStringField("data", rs.getObject("data", LocalDateTime.class).toString());
+            json.writeNumberField("valorTotal", rs.getDouble("valortotal"));
+            json.writeBooleanField("ativo", rs.getBoolean("ativo"));
+            json.writeStringField("metodoPagamento", rs.getString("metodo_pagamento"));
+            escreverNumero("valorPago", rs.getObject("valor_pago", Double.class));
+            escreverNumero("troco", rs.getObject("troco", Double.class));
+            json.writeBooleanField("itensDevolvidos", rs.getBoolean("itens_devolvidos"));
+            json.writeNumberField("usuarioId", rs.getLong("usuario_id"));
+            Long compradorId = rs.getObject("comprador_id", Long.class);
+            if (compradorId != null) {
+                json.writeNumberField("compradorId", compradorId);
+            } else {
+                json.writeNullField("compradorId");
+            }
+            json.writeArrayFieldStart("itens");
+        }
+
+        @Override
+        void escreverItem(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong("item_id"));
+            json.writeNumberField("produtoId", rs.getLong("produto_id"));
+            json.writeNumberField("quantidadeVendida", rs.getInt("quantidade_vendida"));
+            escreverNumero("precoVendido", rs.getObject("preco_vendido", Double.class));
+            json.writeEndObject();
+        }
+
+        @Override
+        void fecharVenda() throws IOException {
+            json.writeEndArray();
+            json.writeEndObject();
+            json.flush();
+            writer.write('\n');
+        }
+
+        @Override
+        void finalizar() throws IOException {
+            super.finalizar();
+            json.close();
+        }
+
+        private void escreverNumero(String campo, Double valor) throws IOException {
+            if (valor != null) {
+                json.writeNumberField(campo, valor);
+            } else {
+                json.writeNullField(campo);
+            }
+        }
+    }
+
+    // Uma linha por item, repetindo as colunas da venda; vendas sem itens saem com as colunas de item vazias
+    private static class EscritorCsv extends Escritor {
+
+        private String colunasVenda;
+        private boolean vendaTemItens;
+
+        EscritorCsv(Writer writer) throws IOException {
+            super(writer);
+            writer.write(CABECALHO_CSV);
+            writer.write('\n');
+        }
+
+        @Override
+        void abrirVenda(ResultSet rs) throws SQLException {
+            colunasVenda = String.join(",",
+                    String.valueOf(rs.getLong("id")),
+                    rs.getObject("data", LocalDateTime.class).toString(),
+                    String.valueOf(rs.getDouble("valortotal")),
+                    String.valueOf(rs.getBoolean("ativo")),
+                    rs.getString("metodo_pagamento"),
+                    valor(rs.getObject("valor_pago", Double.class)),
+                    valor(rs.getObject("troco", Double.class)),
+                    String.valueOf(rs.getBoolean("itens_devolvidos")),
+                    String.valueOf(rs.getLong("usuario_id")),
+                    valor(rs.getObject("comprador_id", Long.class)));
+            vendaTemItens = false;
+        }
+
+        @Override
+        void escreverItem(ResultSet rs) throws SQLException, IOException {
+            vendaTemItens = true;
+            writer.write(colunasVenda);
+            writer.write(',');
+            writer.write(String.join(",",
+                    String.valueOf(rs.getLong("item_id")),
+                    String.valueOf(rs.getLong("produto_id")),
+                    String.valueOf(rs.getInt("quantidade_vendida")),
+                    valor(rs.getObject("preco_vendido", Double.class))));
+            writer.write('\n');
+        }
+
+        @Override
+        void fecharVenda() throws IOException {
+            if (!vendaTemItens) {
+                writer.write(colunasVenda);
+                writer.write(",,,,\n");
+            }
+        }
+
+        private static String valor(Object valor) {
+            return valor != null ? valor.toString() : "";
+        }
+    }
+}
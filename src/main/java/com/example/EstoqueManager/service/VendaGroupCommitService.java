@@ -0,0 +1,187 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.VendaRequestDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.model.VendaModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Modo opcional de "group commit": as vendas validadas entram em uma fila limitada e uma única thread
+// grava até N vendas (ou o que chegar em T ms) na mesma transação. Quem chamou só recebe a resposta
+// depois do commit do grupo, então a durabilidade de cada venda é a mesma do caminho normal.
+@Service
+@RequiredArgsConstructor
+public class VendaGroupCommitService {
+
+    private final VendaService vendaService;
+    private final VendaLoteService vendaLoteService;
+
+    @Getter
+    @Value("${venda.group-commit.enabled:false}")
+    private boolean habilitado;
+
+    @Value("${venda.group-commit.tamanho-maximo:50}")
+    private int tamanhoMaximo;
+
+    @Value("${venda.group-commit.espera-maxima-ms:5}")
+    private long esperaMaximaMs;
+
+    @Value("${venda.group-commit.capacidade-fila:1000}")
+    private int capacidadeFila;
+
+    @Value("${venda.group-commit.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean threadsVirtuais;
+
+    private BlockingQueue<PedidoPendente> fila;
+    private Thread escritor;
+    private volatile boolean executando;
+
+    // "assumido" decide quem fica com o pedido: a thread escritora (vai gravá-lo) ou quem chamou (desistiu
+    // por tempo esgotado). Só um dos dois consegue marcar, então um pedido desistido nunca é gravado.
+    private record PedidoPendente(VendaLoteService.Pedido pedido, CompletableFuture<VendaModel> resposta,
+                                  AtomicBoolean assumido) { }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+
+        fila = new ArrayBlockingQueue<>(capacidadeFila);
+        executando = true;
+        Thread.Builder builder = threadsVirtuais ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        escritor = builder.name("venda-group-commit").start(this::processarFila);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (escritor == null) {
+            return;
+        }
+
+        executando = false;
+        escritor.interrupt();
+        try {
+            escritor.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<PedidoPendente> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        restantes.forEach(pendente -> pendente.resposta()
+                .completeExceptionally(new BusinessException("Aplicação encerrando, venda não registrada.")));
+    }
+
+    public VendaModel criarVenda(VendaRequestDTO vendaDTO, Long usuarioId) {
+        // Rejeita na hora o que nem precisa ir ao banco
+        vendaService.validarRequisicaoVenda(vendaDTO);
+
+        PedidoPendente pendente = new PedidoPendente(
+                new VendaLoteService.Pedido(vendaDTO, usuarioId), new CompletableFuture<>(), new AtomicBoolean());
+
+        if (!executando || !fila.offer(pendente)) {
+            throw new BusinessException("Fila de vendas cheia, tente novamente.");
+        }
+
+        try {
+            return pendente.resposta().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Ainda na fila: retira o pedido e a venda com certeza não é gravada, então repetir é seguro
+            if (pendente.assumido().compareAndSet(false, true)) {
+                throw new BusinessException("Tempo esgotado aguardando a gravação da venda. A venda não foi registrada.");
+            }
+            // Já está no grupo em gravação: espera o resultado real em vez de responder sem saber
+            return aguardar(pendente);
+        } catch (ExecutionException e) {
+            throw causa(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Gravação da venda interrompida.");
+        }
+    }
+
+    private VendaModel aguardar(PedidoPendente pendente) {
+        try {
+            return pendente.resposta().join();
+        } catch (CompletionException e) {
+            throw causa(e);
+        }
+    }
+
+    private RuntimeException causa(Exception e) {
+        if (e.getCause() instanceof RuntimeException causa) {
+            return causa;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    private void processarFila() {
+        List<PedidoPendente> grupo = new ArrayList<>(tamanhoMaximo);
+
+        while (executando) {
+            try {
+                grupo.add(fila.take());
+
+                // Junta o que chegar até completar o grupo ou estourar a espera máxima
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+                while (grupo.size() < tamanhoMaximo) {
+                    long restante = limite - System.nanoTime();
+                    PedidoPendente proximo = restante > 0 ? fila.poll(restante, TimeUnit.NANOSECONDS) : fila.poll();
+                    if (proximo == null) {
+                        break;
+                    }
+                    grupo.add(proximo);
+                }
+
+                gravarGrupo(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                gravarGrupo(grupo);
+                return;
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    private void gravarGrupo(List<PedidoPendente> pedidos) {
+        // Os que quem chamou já desistiu ficam de fora
+        List<PedidoPendente> grupo = pedidos.stream()
+                .filter(pendente -> pendente.assumido().compareAndSet(false, true))
+                .toList();
+
+        if (grupo.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<VendaLoteService.Resultado> resultados = vendaLoteService.registrarBloco(grupo.stream()
+                    .map(PedidoPendente::pedido)
+                    .toList(), true);
+
+            for (int i = 0; i < grupo.size(); i++) {
+                VendaLoteService.Resultado resultado = resultados.get(i);
+                if (resultado.erro() == null) {
+                    grupo.get(i).resposta().complete(resultado.venda());
+                } else {
+                    grupo.get(i).resposta().completeExceptionally(resultado.erro());
+                }
+            }
+        } catch (RuntimeException e) {
+            grupo.forEach(pendente -> pendente.resposta().completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.CancelamentoLoteDTO;
+import com.example.EstoqueManager.dto.CancelamentoLoteResultadoDTO;
+import com.example.EstoqueManager.dto.VendaLoteResultadoDTO;
+import com.example.EstoqueManager.dto.VendaRequestDTO;
+import com.example.EstoqueManager.exception.BusinessException;
+import com.example.EstoqueManager.model.VendaModel;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class VendaLoteService {
+
+    private final VendaService vendaService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${venda.lote.tamanho-bloco:100}")
+    private int tamanhoBloco;
+
+    @Value("${venda.lote.maximo-vendas:5000}")
+    private int maximoVendas;
+
+    @Value("${venda.lote.tamanho-bloco-cancelamento:500}")
+    private int tamanhoBlocoCancelamento;
+
+    public record Pedido(VendaRequestDTO venda, Long usuarioId) { }
+
+    // Contém a venda criada ou o erro que impediu a criação
+    public record Resultado(VendaModel venda, RuntimeException erro) { }
+
+    // Registra as vendas em blocos, cada bloco em uma única transação (INSERTs enviados em lote no flush)
+    public List<VendaLoteResultadoDTO> registrarLote(List<VendaRequestDTO> vendas, Long usuarioId) {
+        if (vendas == null || vendas.isEmpty()) {
+            throw new BusinessException("O lote deve conter pelo menos uma venda.");
+        }
+
+        if (vendas.size() > maximoVendas) {
+            throw new BusinessException("O lote pode conter no máximo " + maximoVendas + " vendas.");
+        }
+
+        List<VendaLoteResultadoDTO> resultados = new ArrayList<>(vendas.size());
+
+        for (int inicio = 0; inicio < vendas.size(); inicio += tamanhoBloco) {
+            List<Pedido> bloco = vendas.subList(inicio, Math.min(inicio + tamanhoBloco, vendas.size())).stream()
+                    .map(venda -> new Pedido(venda, usuarioId))
+                    .toList();
+
+            for (Resultado resultado : registrarBloco(bloco, false)) {
+                int indice = resultados.size();
+                resultados.add(resultado.erro() == null
+                        ? new VendaLoteResultadoDTO(indice, resultado.venda().getId(), true, null)
+                        : new VendaLoteResultadoDTO(indice, null, false, resultado.erro().getMessage()));
+            }
+        }
+
+        return resultados;
+    }
+
+    // Cancela em blocos: cada bloco trava as vendas, devolve o estoque com um único UPDATE e cancela com outro
+    public CancelamentoLoteResultadoDTO cancelarLote(CancelamentoLoteDTO cancelamento) {
+        if (cancelamento == null || cancelamento.getVendaIds() == null || cancelamento.getVendaIds().isEmpty()) {
+            throw new BusinessException("Informe pelo menos uma venda para cancelar.");
+        }
+
+        if (cancelamento.getItensDevolvidos() == null) {
+            throw new BusinessException(
+                    "Ao cancelar vendas, é obrigatório informar se os itens foram devolvidos (itensDevolvidos: true/false).");
+        }
+
+        List<Long> ids = cancelamento.getVendaIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        if (ids.size() > maximoVendas) {
+            throw new BusinessException("O lote pode conter no máximo " + maximoVendas + " vendas.");
+        }
+
+        Set<Long> canceladas = new HashSet<>();
+        for (int inicio = 0; inicio < ids.size(); inicio += tamanhoBlocoCancelamento) {
+            List<Long> bloco = ids.subList(inicio, Math.min(inicio + tamanhoBlocoCancelamento, ids.size()));
+            canceladas.addAll(vendaService.cancelarVendas(bloco, cancelamento.getItensDevolvidos()));
+        }
+
+        List<Long> ignoradas = ids.stream()
+                .filter(id -> !canceladas.contains(id))
+                .toList();
+
+        return new CancelamentoLoteResultadoDTO(
+                ids.stream().filter(canceladas::contains).toList(), ignoradas);
+    }
+
+    // Grava todas as vendas em uma transação; se alguma for inválida, refaz uma a uma para isolar as que falharam.
+    // Com carregarProdutos, os produtos dos itens (referências montadas a partir do cache) são lidos antes do
+    // commit, para quem for serializar as vendas fora de uma sessão aberta (ex.: thread do group commit).
+    public List<Resultado> registrarBloco(List<Pedido> pedidos, boolean carregarProdutos) {
+        try {
+            List<VendaModel> criadas = transactionTemplate.execute(status -> {
+                List<VendaModel> vendas = new ArrayList<>(pedidos.size());
+                for (Pedido pedido : pedidos) {
+                    vendas.add(vendaService.criarVendaAPartirDTO(pedido.venda(), pedido.usuarioId()));
+                }
+                if (carregarProdutos) {
+                    vendas.forEach(this::carregarProdutos);
+                }
+                return vendas;
+            });
+
+            return criadas.stream()
+                    .map(venda -> new Resultado(venda, null))
+                    .toList();
+        } catch (RuntimeException e) {
+            if (pedidos.size() == 1) {
+                return List.of(new Resultado(null, e));
+            }
+
+            return pedidos.stream()
+                    .map(pedido -> registrarIndividualmente(pedido, carregarProdutos))
+                    .toList();
+        }
+    }
+
+    private Resultado registrarIndividualmente(Pedido pedido, boolean carregarProdutos) {
+        try {
+            VendaModel venda = transactionTemplate.execute(status -> {
+                VendaModel criada = vendaService.criarVendaAPartirDTO(pedido.venda(), pedido.usuarioId());
+                if (carregarProdutos) {
+                    carregarProdutos(criada);
+                }
+                return criada;
+            });
+            return new Resultado(venda, null);
+        } catch (RuntimeException e) {
+            return new Resultado(null, e);
+        }
+    }
+
+    private void carregarProdutos(VendaModel venda) {
+        // A carga de um produto traz junto os demais pendentes da sessão (default_batch_fetch_size)
+        venda.getItens().forEach(item -> Hibernate.initialize(item.getProduto()));
+    }
+}
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.example.EstoqueManager.service;
 
+import com.example.EstoqueManager.dto.PaginaDTO;
+import com.example.EstoqueManager.dto.QuantidadePorVendaEProdutoDTO;
 import com.example.EstoqueManager.dto.VendaRequestDTO;
 import com.example.EstoqueManager.exception.BusinessException;
 import com.example.EstoqueManager.exception.ResourceNotFoundException;
 import com.example.EstoqueManager.model.*;
 import com.example.EstoqueManager.repository.CompradorRepository;
+import com.example.EstoqueManager.repository.ItemVendaRepository;
 import com.example.EstoqueManager.repository.UsuarioRepository;
 import com.example.EstoqueManager.repository.VendaRepository;
 import com.example.EstoqueManager.repository.ProdutoRepository;
@@ -13,8 +16,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,9 +28,89 @@ public class VendaService {
     private final ProdutoRepository produtoRepository;
     private final UsuarioRepository usuarioRepository;
     private final CompradorRepository compradorRepository;
+    private final EstoqueService estoqueService;
+    private final ItemVendaRepository itemVendaRepository;
+    private final MovimentacaoEstoqueService movimentacaoEstoqueService;
+    private final ReservaCarrinhoService reservaCarrinhoService;
+    private final ProdutoCacheService produtoCacheService;
+    private final FaturamentoProdutoService faturamentoProdutoService;
+    private final ResumoVendaService resumoVendaService;
+    private final AnaliseVendasService analiseVendasService;
+    private final Paginacao paginacao;
+
+    // Limitada a paginacao.tamanho-maximo vendas, por ID; o restante segue em /venda/findPage?ordem=id
+    public PaginaDTO<VendaModel> listarVendas() {
+        return buscarPagina(null, paginacao.tamanhoMaximo(), "id");
+    }
+
+    // Página das vendas por data (mais recentes primeiro) ou por ID; o cursor guarda a chave da última linha
+    public PaginaDTO<VendaModel> buscarPagina(String cursor, Integer tamanho, String ordem) {
+        int tamanhoPagina = paginacao.tamanho(tamanho);
+
+        if ("id".equals(ordem)) {
+            Long aposId = cursor == null ? 0L : paginacao.decodificarId(cursor);
+            return paginacao.montar(vendaRepository.findByIdGreaterThanOrderByIdAsc(aposId, paginacao.limite(tamanhoPagina)),
+                    tamanhoPagina, venda -> paginacao.codificar(venda.getId()));
+        }
+
+        if (!"data".equals(ordem)) {
+            throw new BusinessException("Ordem inválida. Use 'data' ou 'id'.");
+        }
+
+        PosicaoVenda apos = decodificarPosicao(cursor);
+        List<VendaModel> vendas = apos == null
+                ? vendaRepository.buscarPrimeiraPagina(paginacao.limite(tamanhoPagina))
+                : vendaRepository.buscarPaginaApos(apos.data(), apos.id(), paginacao.limite(tamanhoPagina));
+
+        return montarPaginaPorData(vendas, tamanhoPagina);
+    }
+
+    public PaginaDTO<VendaModel> buscarPaginaDoUsuario(Long usuarioId, String cursor, Integer tamanho) {
+        if (usuarioRepository.findById(usuarioId).isEmpty()) {
+            throw new ResourceNotFoundException("Usuário não encontrado com ID: " + usuarioId);
+        }
+
+        int tamanhoPagina = paginacao.tamanho(tamanho);
+        PosicaoVenda apos = decodificarPosicao(cursor);
+        List<VendaModel> vendas = apos == null
+                ? vendaRepository.buscarPrimeiraPaginaDoUsuario(usuarioId, paginacao.limite(tamanhoPagina))
+                : vendaRepository.buscarPaginaDoUsuarioApos(usuarioId, apos.data(), apos.id(), paginacao.limite(tamanhoPagina));
+
+        return montarPaginaPorData(vendas, tamanhoPagina);
+    }
+
+    public PaginaDTO<VendaModel> buscarPaginaDoComprador(Long compradorId, String cursor, Integer tamanho) {
+        if (!compradorRepository.existsById(compradorId)) {
+            throw new ResourceNotFoundException("Comprador não encontrado com ID: " + compradorId);
+        }
+
+        int tamanhoPagina = paginacao.tamanho(tamanho);
+        PosicaoVenda apos = decodificarPosicao(cursor);
+        List<VendaModel> vendas = apos == null
+                ? vendaRepository.buscarPrimeiraPaginaDoComprador(compradorId, paginacao.limite(tamanhoPagina))
+                : vendaRepository.buscarPaginaDoCompradorApos(compradorId, apos.data(), apos.id(), paginacao.limite(tamanhoPagina));
 
-    public List<VendaModel> listarVendas() {
-        return vendaRepository.findAll();
+        return montarPaginaPorData(vendas, tamanhoPagina);
+    }
+
+    // Chave da última venda de uma página ordenada por (data, id)
+    private record PosicaoVenda(LocalDateTime data, Long id) { }
+
+    private PosicaoVenda decodificarPosicao(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        String[] partes = paginacao.decodificar(cursor, 2);
+        try {
+            return new PosicaoVenda(LocalDateTime.parse(partes[0]), Long.parseLong(partes[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new BusinessException("Cursor inválido.");
+        }
+    }
+
+    private PaginaDTO<VendaModel> montarPaginaPorData(List<VendaModel> vendas, int tamanhoPagina) {
+        return paginacao.montar(vendas, tamanhoPagina, venda -> paginacao.codificar(venda.getData(), venda.getId()));
     }
 
     public VendaModel buscarVendaPorId(Long id) {
@@ -34,7 +118,7 @@ public class VendaService {
             throw new BusinessException("ID inválido. Deve ser um número positivo.");
         }
 
-        return vendaRepository.findById(id)
+        return vendaRepository.buscarDetalhePorId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Venda não encontrada com ID: " + id));
     }
 
@@ -67,31 +151,18 @@ public class VendaService {
 
         venda.setAtivo(true);
 
-        return vendaRepository.save(venda);
+        VendaModel vendaSalva = vendaRepository.save(venda);
+        movimentacaoEstoqueService.registrarVenda(vendaSalva);
+        faturamentoProdutoService.registrarItens(vendaSalva.getItens(), 1);
+        resumoVendaService.registrar(vendaSalva, 1);
+        analiseVendasService.vendaGravada(vendaSalva);
+        return vendaSalva;
     }
 
 
     @Transactional
     public VendaModel criarVendaAPartirDTO(VendaRequestDTO vendaDTO, Long usuarioId) {
-        // Validações básicas do DTO
-        if (vendaDTO == null) {
-            throw new BusinessException("Dados da venda são obrigatórios.");
-        }
-
-        if (vendaDTO.getMetodoPagamento() == null) {
-            throw new BusinessException("Método de pagamento é obrigatório.");
-        }
-
-        if (vendaDTO.getItens() == null || vendaDTO.getItens().isEmpty()) {
-            throw new BusinessException("A venda deve conter pelo menos um item.");
-        }
-
-        // Validação para pagamento em dinheiro
-        if (vendaDTO.getMetodoPagamento() == MetodoPagamento.DINHEIRO) {
-            if (vendaDTO.getValorPago() == null) {
-                throw new BusinessException("Valor pago é obrigatório para pagamento em dinheiro.");
-            }
-        }
+        validarRequisicaoVenda(vendaDTO);
 
         // Busca e valida usuário
         UsuarioModel usuario = usuarioRepository.findById(usuarioId)
@@ -114,40 +185,51 @@ public class VendaService {
             venda.setComprador(comprador);
         }
 
+        // Reserva de carrinho (opcional): o que o próprio cliente reservou fica liberado para esta venda
+        ReservaCarrinhoService.Reserva reserva = reservaCarrinhoService.buscarParaVenda(vendaDTO.getReservaId(), usuarioId);
+
+        // Nome, preço e situação dos produtos vêm do cache; só os que não estão nele são consultados (IN)
+        Map<Long, ProdutoCacheService.Snapshot> produtos = produtoCacheService.buscar(vendaDTO.getItens().stream()
+                .map(VendaRequestDTO.ItemVendaRequestDTO::getProdutoId)
+                .toList());
+
+        // Soma as quantidades por produto (o mesmo produto pode aparecer em mais de uma linha)
+        Map<Long, Integer> quantidadesPorProduto = new HashMap<>();
+        for (VendaRequestDTO.ItemVendaRequestDTO itemDTO : vendaDTO.getItens()) {
+            validarQuantidadeVendida(itemDTO.getQuantidadeVendida());
+            quantidadesPorProduto.merge(itemDTO.getProdutoId(), itemDTO.getQuantidadeVendida(), Integer::sum);
+        }
+
+        // Valida todos os produtos em memória antes de qualquer escrita
+        produtos.values().forEach(this::validarProdutoParaVenda);
+
         // Processa itens da venda
         List<ItemVendaModel> itens = new ArrayList<>();
         double total = 0.0;
 
         for (VendaRequestDTO.ItemVendaRequestDTO itemDTO : vendaDTO.getItens()) {
-            // Busca produto
-            ProdutoModel produto = produtoRepository.findById(itemDTO.getProdutoId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Produto não encontrado com ID: " + itemDTO.getProdutoId()));
-
-            // Valida produto
-            validarProdutoParaVenda(produto, itemDTO.getQuantidadeVendida());
+            ProdutoCacheService.Snapshot produto = produtos.get(itemDTO.getProdutoId());
 
-            // Cria item de venda
+            // Cria item de venda (a referência ao produto não consulta o banco)
             ItemVendaModel item = new ItemVendaModel();
-            item.setProduto(produto);
+            item.setProduto(produtoRepository.getReferenceById(produto.id()));
             item.setVenda(venda);
             item.setQuantidadeVendida(itemDTO.getQuantidadeVendida());
 
             // Define preço: usa o fornecido ou o preço atual do produto
             Double precoVendido = itemDTO.getPrecoVendido() != null ?
-                    itemDTO.getPrecoVendido() : produto.getPreco();
+                    itemDTO.getPrecoVendido() : produto.preco();
             item.setPrecoVendido(precoVendido);
 
             itens.add(item);
 
             // Calcula subtotal
             total += precoVendido * itemDTO.getQuantidadeVendida();
-
-            // Atualiza estoque
-            produto.setQuantidade(produto.getQuantidade() - itemDTO.getQuantidadeVendida());
-            produtoRepository.save(produto);
         }
 
+        // Baixa o estoque com UPDATE condicional em lote: vendas concorrentes não conseguem deixar o estoque negativo
+        baixarEstoque(quantidadesPorProduto, produtos, reserva);
+
         // Configura venda
         venda.setItens(itens);
         venda.setValortotal(total);
@@ -177,19 +259,40 @@ public class VendaService {
             throw new BusinessException("Usuário responsável pela venda é obrigatório.");
         }
 
-        return vendaRepository.save(venda);
+        VendaModel vendaSalva = vendaRepository.save(venda);
+        movimentacaoEstoqueService.registrarVenda(vendaSalva);
+        faturamentoProdutoService.registrarItens(vendaSalva.getItens(), 1);
+        resumoVendaService.registrar(vendaSalva, 1);
+        analiseVendasService.vendaGravada(vendaSalva);
+        return vendaSalva;
     }
 
-    // Método auxiliar para validar produto (pode já existir no seu service)
-    private void validarProdutoParaVenda(ProdutoModel produto, Integer quantidade) {
-        if (!produto.getAtivo()) {
-            throw new BusinessException("Produto " + produto.getNome() + " está inativo.");
+    // Validações básicas do DTO, que não dependem do banco
+    public void validarRequisicaoVenda(VendaRequestDTO vendaDTO) {
+        if (vendaDTO == null) {
+            throw new BusinessException("Dados da venda são obrigatórios.");
+        }
+
+        if (vendaDTO.getMetodoPagamento() == null) {
+            throw new BusinessException("Método de pagamento é obrigatório.");
+        }
+
+        if (vendaDTO.getItens() == null || vendaDTO.getItens().isEmpty()) {
+            throw new BusinessException("A venda deve conter pelo menos um item.");
+        }
+
+        // Validação para pagamento em dinheiro
+        if (vendaDTO.getMetodoPagamento() == MetodoPagamento.DINHEIRO) {
+            if (vendaDTO.getValorPago() == null) {
+                throw new BusinessException("Valor pago é obrigatório para pagamento em dinheiro.");
+            }
         }
+    }
 
-        if (produto.getQuantidade() < quantidade) {
-            throw new BusinessException(
-                    String.format("Estoque insuficiente para produto %s. Disponível: %d, Solicitado: %d",
-                            produto.getNome(), produto.getQuantidade(), quantidade));
+    // Método auxiliar para validar produto (o estoque é checado na baixa, ver EstoqueService)
+    private void validarProdutoParaVenda(ProdutoCacheService.Snapshot produto) {
+        if (!produto.ativo()) {
+            throw new BusinessException("Produto " + produto.nome() + " está inativo.");
         }
     }
 
@@ -234,6 +337,11 @@ public class VendaService {
             throw new BusinessException("Esta venda já está cancelada.");
         }
 
+        // Sai dos resumos como está agora; volta no fim, com as alterações, se continuar ativa
+        if (vendaExistente.isAtivo()) {
+            resumoVendaService.registrar(vendaExistente, -1);
+        }
+
         // LÓGICA DE CANCELAMENTO
         if (vendaExistente.isAtivo() && !vendaAtualizada.isAtivo()) {
             // Está cancelando a venda
@@ -255,6 +363,7 @@ public class VendaService {
 
             // Marca a venda como cancelada
             vendaExistente.setAtivo(false);
+            analiseVendasService.vendaGravada(vendaExistente);
 
             return vendaRepository.save(vendaExistente);
         }
@@ -291,14 +400,18 @@ public class VendaService {
             // Devolve o estoque dos itens antigos
             devolverEstoqueItensAntigos(vendaExistente);
 
+            faturamentoProdutoService.registrarItens(vendaExistente.getItens(), -1);
             vendaExistente.getItens().clear();
 
-            // Processa os novos itens
-            vendaAtualizada.getItens().forEach(item -> item.setVenda(vendaExistente));
+            // Processa os novos itens (processarItensVenda aponta cada item para a venda recebida, então o
+            // vínculo com a venda existente é refeito depois)
             double total = processarItensVenda(vendaAtualizada);
+            vendaAtualizada.getItens().forEach(item -> item.setVenda(vendaExistente));
 
             vendaExistente.getItens().addAll(vendaAtualizada.getItens());
             vendaExistente.setValortotal(total);
+            movimentacaoEstoqueService.registrarVenda(vendaExistente);
+            faturamentoProdutoService.registrarItens(vendaAtualizada.getItens(), 1);
         }
 
         // Atualiza método de pagamento
@@ -308,9 +421,33 @@ public class VendaService {
             processarPagamento(vendaExistente);
         }
 
+        if (vendaExistente.isAtivo()) {
+            resumoVendaService.registrar(vendaExistente, 1);
+        }
+        analiseVendasService.vendaGravada(vendaExistente);
+
         return vendaRepository.save(vendaExistente);
     }
 
+    // Cancela, em uma transação, as vendas ativas entre os IDs informados e retorna as que foram canceladas
+    @Transactional
+    public List<Long> cancelarVendas(Collection<Long> ids, boolean itensDevolvidos) {
+        List<Long> ativas = vendaRepository.travarIdsAtivos(ids);
+
+        if (ativas.isEmpty()) {
+            return ativas;
+        }
+
+        if (itensDevolvidos) {
+            devolverEstoqueDasVendas(ativas);
+        }
+
+        resumoVendaService.registrarVendas(ativas, -1);
+        vendaRepository.cancelarPorIds(ativas, itensDevolvidos);
+        analiseVendasService.vendasCanceladas(ativas);
+        return ativas;
+    }
+
     private void validarVenda(VendaModel venda) {
         if (venda == null) {
             throw new BusinessException("Venda não pode ser nula.");
@@ -375,36 +512,68 @@ public class VendaService {
     private double processarItensVenda(VendaModel venda) {
         double total = 0.0;
 
-        for (ItemVendaModel item : venda.getItens()) {
-            ProdutoModel produto = produtoRepository.findById(item.getProduto().getId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Produto não encontrado com ID: " + item.getProduto().getId()));
+        Map<Long, ProdutoCacheService.Snapshot> produtos = produtoCacheService.buscar(venda.getItens().stream()
+                .map(item -> item.getProduto().getId())
+                .toList());
 
-            if (item.getQuantidadeVendida() > produto.getQuantidade()) {
-                throw new BusinessException(
-                        "Estoque insuficiente para o produto: " + produto.getNome() +
-                                ". Disponível: " + produto.getQuantidade() +
-                                ", Solicitado: " + item.getQuantidadeVendida());
-            }
+        Map<Long, Integer> quantidadesPorProduto = new HashMap<>();
+        for (ItemVendaModel item : venda.getItens()) {
+            validarQuantidadeVendida(item.getQuantidadeVendida());
+            quantidadesPorProduto.merge(item.getProduto().getId(), item.getQuantidadeVendida(), Integer::sum);
+        }
 
-            produto.setQuantidade(produto.getQuantidade() - item.getQuantidadeVendida());
-            produtoRepository.save(produto);
+        for (ItemVendaModel item : venda.getItens()) {
+            ProdutoCacheService.Snapshot produto = produtos.get(item.getProduto().getId());
 
-            item.setPrecoVendido(produto.getPreco());
+            item.setProduto(produtoRepository.getReferenceById(produto.id()));
+            item.setPrecoVendido(produto.preco());
             item.setVenda(venda);
 
             double subtotal = item.getQuantidadeVendida() * item.getPrecoVendido();
             total += subtotal;
         }
 
+        baixarEstoque(quantidadesPorProduto, produtos, null);
+
         return total;
     }
 
+    // A checagem de estoque é feita pelo próprio UPDATE; aqui só traduzimos as linhas que falharam
+    private void baixarEstoque(Map<Long, Integer> quantidadesPorProduto, Map<Long, ProdutoCacheService.Snapshot> produtos,
+                               ReservaCarrinhoService.Reserva reserva) {
+        List<Long> semEstoque = estoqueService.baixar(quantidadesPorProduto,
+                reservaCarrinhoService.reservadosParaVenda(quantidadesPorProduto, reserva));
+
+        if (!semEstoque.isEmpty()) {
+            String detalhes = semEstoque.stream()
+                    .map(produtoId -> String.format("%s (solicitado: %d)",
+                            produtos.get(produtoId).nome(), quantidadesPorProduto.get(produtoId)))
+                    .collect(Collectors.joining(", "));
+            throw new BusinessException("Estoque insuficiente para o(s) produto(s): " + detalhes);
+        }
+    }
+
+    private void validarQuantidadeVendida(Integer quantidade) {
+        if (quantidade == null || quantidade <= 0) {
+            throw new BusinessException("Quantidade vendida deve ser maior que zero.");
+        }
+    }
+
     private void devolverEstoqueItensAntigos(VendaModel venda) {
-        for (ItemVendaModel itemAntigo : venda.getItens()) {
-            ProdutoModel produto = itemAntigo.getProduto();
-            produto.setQuantidade(produto.getQuantidade() + itemAntigo.getQuantidadeVendida());
-            produtoRepository.save(produto);
+        devolverEstoqueDasVendas(List.of(venda.getId()));
+    }
+
+    // Soma as quantidades no banco (GROUP BY venda e produto) em vez de percorrer itens e produtos um a um
+    private void devolverEstoqueDasVendas(Collection<Long> vendaIds) {
+        List<QuantidadePorVendaEProdutoDTO> linhas = itemVendaRepository.somarQuantidadesPorVendaEProduto(vendaIds);
+
+        Map<Long, Integer> quantidadesPorProduto = new HashMap<>();
+        for (QuantidadePorVendaEProdutoDTO linha : linhas) {
+            quantidadesPorProduto.merge(linha.getProdutoId(), linha.getQuantidade().intValue(), Integer::sum);
         }
+
+        estoqueService.devolver(quantidadesPorProduto);
+        reservaCarrinhoService.estoqueAlterado(quantidadesPorProduto.keySet());
+        movimentacaoEstoqueService.registrarDevolucoes(linhas);
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.EstoqueManager.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versão do catálogo (produtos e categorias, incluindo estoque) usada como ETag em /produto/findAll e
+// /categoria/findAll. Cada escrita que muda o que esses endpoints devolvem incrementa o contador.
+// O contador é da instância: o instante de início entra no ETag para uma reinicialização não repetir versões.
+@Component
+public class VersaoCatalogo {
+
+    private final long inicio = System.currentTimeMillis();
+    private final AtomicLong versao = new AtomicLong();
+
+    // Dentro de uma transação, incrementa só depois que ela termina: quem vir a versão nova já lê os dados novos
+    public void alterado() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versao.incrementAndGet();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                versao.incrementAndGet();
+            }
+        });
+    }
+
+    public String etag() {
+        return "\"" + inicio + "-" + versao.get() + "\"";
+    }
+}
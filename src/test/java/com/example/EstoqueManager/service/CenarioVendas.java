@@ -0,0 +1,69 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.VendaRequestDTO;
+import com.example.EstoqueManager.model.*;
+import com.example.EstoqueManager.repository.CategoriaRepository;
+import com.example.EstoqueManager.repository.ProdutoRepository;
+import com.example.EstoqueManager.repository.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Dados dos testes de vendas: vendedor, categoria com produtos e vendas com N itens. Nomes, CPFs e logins
+// levam um sufixo aleatório para os testes não colidirem no mesmo banco.
+@TestComponent
+@RequiredArgsConstructor
+public class CenarioVendas {
+
+    public static final int PRODUTOS = 50;
+
+    private final VendaService vendaService;
+    private final CategoriaRepository categoriaRepository;
+    private final ProdutoRepository produtoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final FaturamentoProdutoService faturamentoProdutoService;
+
+    public UsuarioModel novoUsuario() {
+        String sufixo = sufixo();
+        return usuarioRepository.save(new UsuarioModel(null, "Vendedor " + sufixo, "cpf-" + sufixo, 30,
+                "login-" + sufixo, "senha", Cargo.ADM, null));
+    }
+
+    // Uma categoria nova com PRODUTOS produtos ativos e estoque de sobra, cada um com a linha de faturamento
+    // que o ProdutoService cria no cadastro
+    public List<ProdutoModel> novosProdutos() {
+        String sufixo = sufixo();
+        CategoriaModel categoria = categoriaRepository.save(new CategoriaModel(null, "Categoria " + sufixo, null));
+
+        List<ProdutoModel> produtos = new ArrayList<>();
+        for (int i = 0; i < PRODUTOS; i++) {
+            ProdutoModel produto = new ProdutoModel();
+            produto.setNome("Produto " + sufixo + " " + i);
+            produto.setQuantidade(1000);
+            produto.setPreco(10.0 + i);
+            produto.setAtivo(true);
+            produto.setCategoria(categoria);
+            produtos.add(produtoRepository.save(produto));
+            faturamentoProdutoService.produtoCriado(produto.getId());
+        }
+        return produtos;
+    }
+
+    // Uma unidade de cada um dos primeiros quantidadeItens produtos
+    public VendaModel criarVenda(UsuarioModel usuario, List<ProdutoModel> produtos, int quantidadeItens) {
+        List<VendaRequestDTO.ItemVendaRequestDTO> itens = new ArrayList<>();
+        for (int i = 0; i < quantidadeItens; i++) {
+            itens.add(new VendaRequestDTO.ItemVendaRequestDTO(produtos.get(i).getId(), 1, null));
+        }
+
+        return vendaService.criarVendaAPartirDTO(new VendaRequestDTO(null, MetodoPagamento.PIX, null, null, itens),
+                usuario.getId());
+    }
+
+    private static String sufixo() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.EstoqueManager.service;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+// Registra os comandos que chegam ao banco por qualquer caminho (Hibernate, JdbcTemplate), no DataSource:
+// cada execute*/executeBatch é uma ida ao banco, e um lote conta uma vez. Só registra na thread que chamou
+// iniciar(), para as tarefas agendadas da aplicação não entrarem na medição.
+@TestComponent
+public class ContadorComandosJdbc implements BeanPostProcessor {
+
+    // SQL de cada execução, na ordem
+    private final List<String> comandos = new CopyOnWriteArrayList<>();
+
+    private volatile Thread medida;
+
+    public void iniciar() {
+        comandos.clear();
+        medida = Thread.currentThread();
+    }
+
+    public long comandos() {
+        return comandos.size();
+    }
+
+    public long comandos(Predicate<String> filtro) {
+        return comandos.stream().filter(filtro).count();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceContador)) {
+            return new DataSourceContador(dataSource);
+        }
+        return bean;
+    }
+
+    private final class DataSourceContador extends DelegatingDataSource {
+
+        DataSourceContador(DataSource alvo) {
+            super(alvo);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return conexao(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String usuario, String senha) throws SQLException {
+            return conexao(super.getConnection(usuario, senha));
+        }
+    }
+
+    private Connection conexao(Connection alvo) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    Object resultado = invocar(alvo, metodo, args);
+                    if (resultado instanceof Statement comando) {
+                        // prepareStatement/prepareCall recebem o SQL; createStatement recebe no execute
+                        String sql = metodo.getName().startsWith("prepare") ? (String) args[0] : null;
+                        return this.comando(comando, metodo.getReturnType(), sql);
+                    }
+                    return resultado;
+                });
+    }
+
+    private Object comando(Statement alvo, Class<?> tipo, String sqlPreparado) {
+        Class<?> interfaceComando = CallableStatement.class.isAssignableFrom(tipo) ? CallableStatement.class
+                : PreparedStatement.class.isAssignableFrom(tipo) ? PreparedStatement.class : Statement.class;
+
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{interfaceComando},
+                (proxy, metodo, args) -> {
+                    if (metodo.getName().startsWith("execute") && Thread.currentThread() == medida) {
+                        comandos.add(sqlPreparado != null ? sqlPreparado
+                                : args != null && args.length > 0 && args[0] instanceof String sql ? sql : "");
+                    }
+                    return invocar(alvo, metodo, args);
+                });
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.model.ProdutoModel;
+import com.example.EstoqueManager.model.UsuarioModel;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Mais vendas simultâneas do que conexões no pool, todas pedindo blocos de ids (50 itens e 50 movimentações
+// por venda). A busca do bloco usa outra conexão além da transação da venda; sem a reserva de
+// ConexoesGeradorIdConfig as vendas ocupam o pool esperando a trava do gerador e falham no connection-timeout.
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({ContadorComandosJdbc.class, CenarioVendas.class})
+class VendaConcorrenteGeradorIdTest {
+
+    private static final int VENDAS_POR_THREAD = 3;
+
+    @Autowired
+    private CenarioVendas cenario;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void vendasAlemDoTamanhoDoPoolNaoTravamNoGeradorDeIds() throws Exception {
+        int threads = 3 * dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+
+        // Produtos próprios por thread: a disputa fica no pool e no gerador, não na linha do produto
+        UsuarioModel usuario = cenario.novoUsuario();
+        List<List<ProdutoModel>> produtosPorThread = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            produtosPorThread.add(cenario.novosProdutos());
+        }
+
+        CyclicBarrier largada = new CyclicBarrier(threads);
+        List<Future<?>> vendas = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (List<ProdutoModel> produtos : produtosPorThread) {
+                vendas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < VENDAS_POR_THREAD; i++) {
+                        cenario.criarVenda(usuario, produtos, CenarioVendas.PRODUTOS);
+                    }
+                    return null;
+                }));
+            }
+
+            // Bem abaixo do connection-timeout padrão (30 s): uma venda presa no pool não chega a falhar a tempo
+            for (Future<?> venda : vendas) {
+                venda.get(20, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(vendas).allMatch(Future::isDone);
+    }
+}
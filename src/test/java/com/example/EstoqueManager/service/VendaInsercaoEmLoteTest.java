@@ -0,0 +1,110 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.model.ProdutoModel;
+import com.example.EstoqueManager.model.UsuarioModel;
+import com.example.EstoqueManager.model.VendaModel;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Com ids em blocos (GenerationType.TABLE) e hibernate.jdbc.batch_size, os INSERTs dos itens e das
+// movimentações de uma venda vão em lotes: o número de comandos não cresce com o número de itens.
+// Os comandos são contados no DataSource (ContadorComandosJdbc), então entram também os do JdbcTemplate.
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({ContadorComandosJdbc.class, CenarioVendas.class})
+class VendaInsercaoEmLoteTest {
+
+    // Baixa de estoque, faturamento por produto, resumos, e os INSERTs de venda, itens e movimentações:
+    // um comando (ou lote) cada, qualquer que seja o número de itens
+    private static final int COMANDOS_POR_VENDA = 6;
+
+    // Cada bloco de ids (allocationSize 50) custa um SELECT ... FOR UPDATE e um UPDATE em id_gerador_table
+    private static final int COMANDOS_POR_BLOCO_DE_IDS = 2;
+    private static final int IDS_POR_BLOCO = 50;
+
+    @Autowired
+    private CenarioVendas cenario;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ContadorComandosJdbc contador;
+
+    private Statistics estatisticas;
+    private UsuarioModel usuario;
+    private List<ProdutoModel> produtos;
+
+    @BeforeEach
+    void preparar() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+
+        usuario = cenario.novoUsuario();
+        produtos = cenario.novosProdutos();
+    }
+
+    // Blocos de ids que uma venda pode pedir: 1 para a venda e, para itens e para movimentações, um bloco a
+    // cada 50 ids mais um se a faixa atravessar a divisa entre blocos
+    private static int blocosDeIds(int quantidadeItens) {
+        return 1 + 2 * (quantidadeItens / IDS_POR_BLOCO + 1);
+    }
+
+    @Test
+    void vendaDe50ItensUsaOsMesmosComandosQueUmaVendaDeUmItem() {
+        aquecer();
+
+        contador.iniciar();
+        criarVenda(1);
+        long comandosUmItem = contador.comandos(sql -> !geradorDeIds(sql));
+
+        contador.iniciar();
+        criarVenda(50);
+        long comandos50Itens = contador.comandos(sql -> !geradorDeIds(sql));
+        long comandosDeIds50Itens = contador.comandos(this::geradorDeIds);
+
+        assertThat(comandos50Itens).isEqualTo(comandosUmItem).isLessThanOrEqualTo(COMANDOS_POR_VENDA);
+        assertThat(comandosDeIds50Itens).isLessThanOrEqualTo((long) blocosDeIds(50) * COMANDOS_POR_BLOCO_DE_IDS);
+    }
+
+    @Test
+    void itensDaVendaSaoInseridosEmLote() {
+        aquecer();
+
+        estatisticas.clear();
+        contador.iniciar();
+        VendaModel venda = criarVenda(50);
+
+        assertThat(venda.getItens()).hasSize(50);
+        // Venda, itens e movimentações: cada um é uma entidade inserida, mas não um comando cada
+        assertThat(estatisticas.getEntityInsertCount()).isGreaterThanOrEqualTo(101);
+        assertThat(contador.comandos())
+                .isLessThanOrEqualTo(COMANDOS_POR_VENDA + (long) blocosDeIds(50) * COMANDOS_POR_BLOCO_DE_IDS);
+    }
+
+    // Leva o cache de produtos e o do usuário ao mesmo estado para todas as medições: o usuário recém-gravado
+    // só passa a vir do cache de segundo nível depois de ter sido lido uma vez fora dele
+    private void aquecer() {
+        criarVenda(50);
+        criarVenda(1);
+    }
+
+    private boolean geradorDeIds(String sql) {
+        return sql.contains("id_gerador_table");
+    }
+
+    private VendaModel criarVenda(int quantidadeItens) {
+        return cenario.criarVenda(usuario, produtos, quantidadeItens);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.EstoqueManager.service;
+
+import com.example.EstoqueManager.dto.PaginaDTO;
+import com.example.EstoqueManager.model.ProdutoModel;
+import com.example.EstoqueManager.model.UsuarioModel;
+import com.example.EstoqueManager.model.VendaModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Leituras de vendas com plano de busca fixo (entity graph na venda por ID, itens em lote nas páginas):
+// o número de comandos não depende de quantos itens as vendas têm
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({ContadorComandosJdbc.class, CenarioVendas.class})
+class VendaLeituraComandosTest {
+
+    private static final int VENDAS_POR_PAGINA = 5;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private CenarioVendas cenario;
+
+    @Autowired
+    private ContadorComandosJdbc contador;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<ProdutoModel> produtos;
+
+    @BeforeEach
+    void preparar() {
+        produtos = cenario.novosProdutos();
+    }
+
+    @Test
+    void buscarVendaPorIdNaoDependeDaQuantidadeDeItens() {
+        UsuarioModel usuario = cenario.novoUsuario();
+        Long vendaUmItem = criarVenda(usuario, 1).getId();
+        Long venda50Itens = criarVenda(usuario, 50).getId();
+
+        long comandosUmItem = comandosParaLer(() -> vendaService.buscarVendaPorId(vendaUmItem));
+        long comandos50Itens = comandosParaLer(() -> vendaService.buscarVendaPorId(venda50Itens));
+
+        // Venda, itens, produtos e categorias numa consulta só (entity graph VendaModel.detalhe)
+        assertThat(comandos50Itens).isEqualTo(comandosUmItem).isEqualTo(1);
+    }
+
+    @Test
+    void paginaDeVendasNaoDependeDaQuantidadeDeItens() {
+        UsuarioModel usuarioUmItem = cenario.novoUsuario();
+        UsuarioModel usuario50Itens = cenario.novoUsuario();
+        for (int i = 0; i < VENDAS_POR_PAGINA; i++) {
+            criarVenda(usuarioUmItem, 1);
+            criarVenda(usuario50Itens, 50);
+        }
+
+        long comandosUmItem = comandosParaLer(() -> paginaDoUsuario(usuarioUmItem));
+        long comandos50Itens = comandosParaLer(() -> paginaDoUsuario(usuario50Itens));
+
+        // A página de 50 itens por venda tem 250 itens e 50 produtos: vendas, itens e produtos, um comando cada
+        assertThat(comandos50Itens).isEqualTo(comandosUmItem).isLessThanOrEqualTo(3);
+    }
+
+    private PaginaDTO<VendaModel> paginaDoUsuario(UsuarioModel usuario) {
+        PaginaDTO<VendaModel> pagina = vendaService.buscarPaginaDoUsuario(usuario.getId(), null, VENDAS_POR_PAGINA);
+        assertThat(pagina.getItens()).hasSize(VENDAS_POR_PAGINA);
+        return pagina;
+    }
+
+    // Lê e serializa como o controller faz, dentro de uma transação para as associações preguiçosas carregarem;
+    // o cache de segundo nível é esvaziado antes para medir sempre o caso sem cache
+    private long comandosParaLer(Supplier<Object> leitura) {
+        entityManagerFactory.getCache().evictAll();
+        contador.iniciar();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                objectMapper.writeValueAsString(leitura.get());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        return contador.comandos();
+    }
+
+    private VendaModel criarVenda(UsuarioModel usuario, int quantidadeItens) {
+        return cenario.criarVenda(usuario, produtos, quantidadeItens);
+    }
+}